@@ -0,0 +1,56 @@
+package Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерирует наборы входных строк для бенчмарков.
+ * Соотношение целых чисел, вещественных чисел и строк задается долями в формате {@code "целые:вещественные:строки"}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public final class Dataset {
+    //Символы, из которых составляются строковые данные
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private Dataset() {
+    }
+
+    /**
+     * Генерирует набор строк заданного размера и состава.
+     *
+     * @param lines количество строк
+     * @param mix   доли целых, вещественных чисел и строк, например {@code "20:20:60"}
+     * @param seed  начальное значение генератора случайных чисел
+     * @return список сгенерированных строк
+     */
+    public static List<String> generate(int lines, String mix, long seed) {
+        String[] parts = mix.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Состав набора должен задаваться в формате целые:вещественные:строки.");
+        }
+        int integers = Integer.parseInt(parts[0]);
+        int floats = Integer.parseInt(parts[1]);
+        int total = integers + floats + Integer.parseInt(parts[2]);
+        Random random = new Random(seed);
+        List<String> data = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            int kind = random.nextInt(total);
+            if (kind < integers) {
+                data.add(Long.toString(random.nextLong() >> random.nextInt(64)));
+            } else if (kind < integers + floats) {
+                data.add(Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12))));
+            } else {
+                int length = 1 + random.nextInt(40);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                data.add(sb.toString());
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,126 @@
+package Benchmarks;
+
+import Buffers.DoubleColumn;
+import Buffers.LongColumn;
+import Managers.FileManager;
+import Utility.ParsedValue;
+import Utility.TypeChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Измеряет чтение входных файлов методами {@link FileManager#readFiles} и запись данных
+ * каждого типа методами {@link FileManager#write}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class FileManagerBenchmark {
+    //Количество строк во входном файле
+    @Param({"1000000"})
+    public int lines;
+
+    //Доли целых, вещественных чисел и строк
+    @Param({"20:20:60", "80:10:10"})
+    public String mix;
+
+    private Path directory;
+    private List<String> files;
+    private final List<BigInteger> integerList = new ArrayList<>();
+    private final List<String> stringList = new ArrayList<>();
+    private final LongColumn integerColumn = new LongColumn();
+    private final DoubleColumn floatColumn = new DoubleColumn();
+    private final FileManager fileManager = new FileManager(new SilentConsole());
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("file-manager-benchmark");
+        Path file = directory.resolve("input.txt");
+        List<String> data = Dataset.generate(lines, mix, 42);
+        Files.write(file, data, StandardCharsets.UTF_8);
+        files = List.of(file.toString());
+        TypeChecker typeChecker = TypeChecker.getInstance();
+        ParsedValue value = new ParsedValue();
+        for (String e : data) {
+            switch (typeChecker.classify(e, value)) {
+                case INTEGER:
+                    integerList.add(BigInteger.valueOf(value.getLong()));
+                    integerColumn.add(value.getLong());
+                    break;
+                case FLOAT:
+                    floatColumn.add(value.getDouble());
+                    break;
+                case STRING:
+                    stringList.add(e);
+                    break;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> readFilesToList() {
+        return fileManager.readFiles(files);
+    }
+
+    @Benchmark
+    public long readFilesToConsumer(Blackhole blackhole) {
+        return fileManager.readFiles(files, blackhole::consume);
+    }
+
+    @Benchmark
+    public void writeIntegersList() {
+        fileManager.write(integerList, directory.toString(), "list_", "integers.txt", false);
+    }
+
+    @Benchmark
+    public void writeIntegersColumn() {
+        fileManager.write(integerColumn, directory.toString(), "", "integers.txt", false);
+    }
+
+    @Benchmark
+    public void writeFloatsColumn() {
+        fileManager.write(floatColumn, directory.toString(), "", "floats.txt", false);
+    }
+
+    @Benchmark
+    public void writeStrings() {
+        fileManager.write(stringList, directory.toString(), "", "strings.txt", false);
+    }
+}
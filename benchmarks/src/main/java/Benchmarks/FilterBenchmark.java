@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import Managers.FileManager;
+import Utility.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Измеряет полный запуск утилиты {@link Filter#solve()}: чтение входных файлов, сортировку по типам,
+ * подсчет полной статистики и запись выходных файлов в каждом из режимов работы.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class FilterBenchmark {
+    //Количество строк в каждом входном файле
+    @Param({"1000000"})
+    public int lines;
+
+    //Количество входных файлов
+    @Param({"2"})
+    public int inputs;
+
+    //Доли целых, вещественных чисел и строк
+    @Param({"20:20:60"})
+    public String mix;
+
+    //Ключи режима работы; default - запуск без дополнительных ключей
+    @Param({"default", "--stream", "--pipeline", "--mmap --stream", "--threads 4"})
+    public String mode;
+
+    private Path directory;
+    private String[] arguments;
+    private final FileManager fileManager = new FileManager(new SilentConsole());
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("filter-benchmark");
+        List<String> args = new ArrayList<>();
+        if (!mode.equals("default")) {
+            args.addAll(Arrays.asList(mode.split(" ")));
+        }
+        args.addAll(List.of("-f", "-o", directory.toString()));
+        for (int i = 0; i < inputs; i++) {
+            Path file = directory.resolve("input" + i + ".txt");
+            Files.write(file, Dataset.generate(lines, mix, 42 + i), StandardCharsets.UTF_8);
+            args.add(file.toString());
+        }
+        arguments = args.toArray(new String[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void solve() {
+        new Filter(fileManager, new SilentConsole(), arguments).solve();
+    }
+}
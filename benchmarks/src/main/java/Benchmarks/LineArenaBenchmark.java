@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import Buffers.LineArena;
+import Managers.FileManager;
+import Managers.StatisticsManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сравнивает накопление строк в списке {@link String} и в {@link LineArena}: каждая строка декодируется
+ * из байтов, как при чтении файла, затем считается полная статистика и строки записываются в файл.
+ * Нагрузку на сборщик мусора показывает запуск с профилировщиком {@code -prof gc}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class LineArenaBenchmark {
+    //Количество строк в наборе
+    @Param({"1000000"})
+    public int lines;
+
+    private Path directory;
+    private final List<byte[]> encoded = new ArrayList<>();
+    private final FileManager fileManager = new FileManager(new SilentConsole());
+    private final StatisticsManager statisticsManager = StatisticsManager.getInstance();
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("line-arena-benchmark");
+        for (String e : Dataset.generate(lines, "0:0:100", 42)) {
+            encoded.add(e.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String collectList() {
+        List<String> strings = new ArrayList<>();
+        for (byte[] bytes : encoded) {
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        String statistics = statisticsManager.getFullStringStatistics(strings);
+        fileManager.write(strings, directory.toString(), "list_", "strings.txt", false);
+        return statistics;
+    }
+
+    @Benchmark
+    public String collectArena() {
+        LineArena strings = new LineArena();
+        for (byte[] bytes : encoded) {
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        String statistics = statisticsManager.getFullStringStatistics(strings);
+        fileManager.write(strings, directory.toString(), "arena_", "strings.txt", false);
+        strings.release();
+        return statistics;
+    }
+}
@@ -0,0 +1,89 @@
+package Benchmarks;
+
+import Managers.FileManager;
+import Managers.MappedLineReader;
+import Utility.DataType;
+import Utility.ParsedValue;
+import Utility.TypeChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает чтение и классификацию большого ASCII-файла через {@code BufferedReader}
+ * и через отображение файла в память с разбором байтов.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class ReaderBenchmark {
+    //Количество строк во входном файле
+    @Param({"5000000"})
+    public int lines;
+
+    //Доли целых, вещественных чисел и строк
+    @Param({"20:20:60", "80:10:10"})
+    public String mix;
+
+    private Path file;
+    private List<String> files;
+    private final FileManager fileManager = new FileManager(new SilentConsole());
+    private final TypeChecker typeChecker = TypeChecker.getInstance();
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("reader-benchmark", ".txt");
+        Files.write(file, Dataset.generate(lines, mix, 42), StandardCharsets.UTF_8);
+        files = List.of(file.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void bufferedReader(Blackhole blackhole) {
+        ParsedValue value = new ParsedValue();
+        fileManager.readFiles(files, e -> {
+            blackhole.consume(typeChecker.classify(e, value));
+            blackhole.consume(value.getLong());
+        });
+    }
+
+    @Benchmark
+    public void mappedReader(Blackhole blackhole) {
+        ParsedValue value = new ParsedValue();
+        fileManager.readFilesMapped(files, (buffer, from, to) -> {
+            DataType type = typeChecker.classify(buffer, from, to, value);
+            blackhole.consume(type);
+            blackhole.consume(value.getLong());
+            if (type == DataType.STRING) {
+                blackhole.consume(MappedLineReader.decode(buffer, from, to));
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package Benchmarks;
+
+import Utility.Console;
+
+/**
+ * Консоль, не выводящая ничего. Используется в бенчмарках, чтобы вывод не влиял на измерения.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class SilentConsole implements Console {
+    @Override
+    public void print(Object obj) {
+    }
+
+    @Override
+    public void println(Object obj) {
+    }
+
+    @Override
+    public void printError(Object obj) {
+    }
+
+    @Override
+    public boolean isCanReadln() {
+        return false;
+    }
+
+    @Override
+    public String readln() {
+        return "";
+    }
+}
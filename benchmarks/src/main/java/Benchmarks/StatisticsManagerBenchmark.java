@@ -0,0 +1,158 @@
+package Benchmarks;
+
+import Buffers.DoubleColumn;
+import Buffers.LongColumn;
+import Managers.StatisticsManager;
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+import Utility.ParsedValue;
+import Utility.TypeChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измеряет время подсчета статистики каждым методом {@link StatisticsManager}:
+ * по спискам, по примитивным массивам и по накопленным за один проход статистикам.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsManagerBenchmark {
+    //Количество строк в наборе
+    @Param({"100000"})
+    public int lines;
+
+    //Доли целых, вещественных чисел и строк
+    @Param({"20:20:60", "80:10:10"})
+    public String mix;
+
+    private final List<BigInteger> integerList = new ArrayList<>();
+    private final List<Double> floatList = new ArrayList<>();
+    private final List<String> stringList = new ArrayList<>();
+    private final LongColumn integerColumn = new LongColumn();
+    private final DoubleColumn floatColumn = new DoubleColumn();
+    private final IntegerStats integerStats = new IntegerStats();
+    private final FloatStats floatStats = new FloatStats();
+    private final StringStats stringStats = new StringStats();
+    private final StatisticsManager statisticsManager = StatisticsManager.getInstance();
+
+    @Setup
+    public void setup() {
+        TypeChecker typeChecker = TypeChecker.getInstance();
+        ParsedValue value = new ParsedValue();
+        for (String e : Dataset.generate(lines, mix, 42)) {
+            switch (typeChecker.classify(e, value)) {
+                case INTEGER:
+                    integerList.add(BigInteger.valueOf(value.getLong()));
+                    integerColumn.add(value.getLong());
+                    integerStats.add(value.getLong());
+                    break;
+                case FLOAT:
+                    floatList.add(value.getDouble());
+                    floatColumn.add(value.getDouble());
+                    floatStats.add(value.getDouble());
+                    break;
+                case STRING:
+                    stringList.add(e);
+                    stringStats.add(e.length());
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public String fullIntegersList() {
+        return statisticsManager.getFullIntegersStatistics(integerList);
+    }
+
+    @Benchmark
+    public String fullIntegersColumn() {
+        return statisticsManager.getFullIntegersStatistics(integerColumn);
+    }
+
+    @Benchmark
+    public String fullIntegersStats() {
+        return statisticsManager.getFullIntegersStatistics(integerStats);
+    }
+
+    @Benchmark
+    public String fullFloatsList() {
+        return statisticsManager.getFullFloatsStatistics(floatList);
+    }
+
+    @Benchmark
+    public String fullFloatsColumn() {
+        return statisticsManager.getFullFloatsStatistics(floatColumn);
+    }
+
+    @Benchmark
+    public String fullFloatsStats() {
+        return statisticsManager.getFullFloatsStatistics(floatStats);
+    }
+
+    @Benchmark
+    public String fullStringsList() {
+        return statisticsManager.getFullStringStatistics(stringList);
+    }
+
+    @Benchmark
+    public String fullStringsStats() {
+        return statisticsManager.getFullStringStatistics(stringStats);
+    }
+
+    @Benchmark
+    public String shortNumbersList() {
+        return statisticsManager.getShortNumberStatistics(integerList);
+    }
+
+    @Benchmark
+    public String shortIntegersColumn() {
+        return statisticsManager.getShortNumberStatistics(integerColumn);
+    }
+
+    @Benchmark
+    public String shortIntegersStats() {
+        return statisticsManager.getShortNumberStatistics(integerStats);
+    }
+
+    @Benchmark
+    public String shortFloatsColumn() {
+        return statisticsManager.getShortNumberStatistics(floatColumn);
+    }
+
+    @Benchmark
+    public String shortFloatsStats() {
+        return statisticsManager.getShortNumberStatistics(floatStats);
+    }
+
+    @Benchmark
+    public String shortStringsList() {
+        return statisticsManager.getShortStringStatistics(stringList);
+    }
+
+    @Benchmark
+    public String shortStringsStats() {
+        return statisticsManager.getShortStringStatistics(stringStats);
+    }
+}
@@ -0,0 +1,112 @@
+package Benchmarks;
+
+import Utility.DataType;
+import Utility.TypeChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает определение типа через исключения {@code Long.parseLong}/{@code Double.parseDouble}
+ * с ручным разбором {@link TypeChecker#classify}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeCheckerBenchmark {
+    //Количество строк в наборе
+    @Param({"100000"})
+    public int lines;
+
+    //Доли целых, вещественных чисел и строк
+    @Param({"20:20:60", "80:10:10", "0:0:100"})
+    public String mix;
+
+    private String[] data;
+    private ByteBuffer buffer;
+    private int[] bounds;
+    private final TypeChecker typeChecker = TypeChecker.getInstance();
+
+    @Setup
+    public void setup() {
+        List<String> generated = Dataset.generate(lines, mix, 42);
+        data = generated.toArray(new String[0]);
+        byte[] joined = String.join("\n", generated).getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.allocateDirect(joined.length);
+        buffer.put(joined).flip();
+        bounds = new int[lines + 1];
+        int line = 1;
+        for (int i = 0; i < joined.length; i++) {
+            if (joined[i] == '\n') bounds[line++] = i + 1;
+        }
+        bounds[lines] = joined.length + 1;
+    }
+
+    @Benchmark
+    public void legacyDetermineType(Blackhole blackhole) {
+        for (String e : data) {
+            blackhole.consume(legacyDetermineType(e));
+        }
+    }
+
+    @Benchmark
+    public void determineType(Blackhole blackhole) {
+        for (String e : data) {
+            blackhole.consume(typeChecker.determineType(e));
+        }
+    }
+
+    @Benchmark
+    public void classifyString(Blackhole blackhole) {
+        for (String e : data) {
+            blackhole.consume(typeChecker.classify(e));
+        }
+    }
+
+    @Benchmark
+    public void classifyBytes(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            blackhole.consume(typeChecker.classify(buffer, bounds[i], bounds[i + 1] - 1));
+        }
+    }
+
+    /**
+     * Прежняя реализация {@code TypeChecker.determineType}, основанная на перехвате исключений.
+     *
+     * @param input входные данные
+     * @return тип данных, содержащийся в строке
+     */
+    private static DataType legacyDetermineType(String input) {
+        try {
+            Long.parseLong(input);
+            return DataType.INTEGER;
+        } catch (NumberFormatException e) {
+            try {
+                Double.parseDouble(input);
+                return DataType.FLOAT;
+            } catch (NumberFormatException ex) {
+                return DataType.STRING;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package Managers;
+
+import Benchmarks.SilentConsole;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+import Utility.DataType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что поврежденный или не совпадающий с выходным файлом файл статистики не прерывает работу,
+ * а статистика пересчитывается по выходному файлу.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class StatisticsSidecarTest {
+    //Размер заголовка файла статистики: признак, версия, тип данных и размер выходного файла
+    private static final int HEADER = 14;
+    //Точность счетчика различных строк и количество частых строк в проверках
+    private static final int PRECISION = 4;
+    private static final int CAPACITY = 8;
+
+    @TempDir
+    Path directory;
+
+    private final FileManager fileManager = new FileManager(new SilentConsole());
+
+    @Test
+    void rebuildsIntegersWhenNumberLengthIsDamaged() throws IOException {
+        Files.write(directory.resolve("integers.txt"), List.of("1", "-5", "40"));
+        IntegerStats stats = new IntegerStats();
+        stats.add(1);
+        stats.add(-5);
+        stats.add(40);
+        sidecar("integers.txt", false).save(stats);
+        // Длина части суммы, перенесенной из long, следует за количеством, минимумом, максимумом и суммой
+        damage("integers.txt", HEADER + 4 * Long.BYTES, 0x7FFFFFF0);
+
+        IntegerStats loaded = sidecar("integers.txt", true).loadIntegers(false);
+
+        assertEquals(3, loaded.getCount());
+        assertEquals(BigInteger.valueOf(36), loaded.getSum());
+        assertEquals(BigInteger.valueOf(-5), loaded.getMin());
+        assertEquals(BigInteger.valueOf(40), loaded.getMax());
+    }
+
+    @Test
+    void rebuildsStringsWhenHeavyHitterLengthIsDamaged() throws IOException {
+        saveStrings();
+        damage("strings.txt", heavyHittersOffset() + 2 * Integer.BYTES, 0x7FFFFFF0);
+
+        assertRebuiltStrings(sidecar("strings.txt", true).loadStrings(true, PRECISION, CAPACITY));
+    }
+
+    @Test
+    void rebuildsStringsWhenHeavyHittersCapacityIsDamaged() throws IOException {
+        saveStrings();
+        damage("strings.txt", heavyHittersOffset(), Integer.MAX_VALUE);
+
+        assertRebuiltStrings(sidecar("strings.txt", true).loadStrings(true, PRECISION, CAPACITY));
+    }
+
+    @Test
+    void rebuildsIntegersAppendedByAnotherWriter() throws IOException {
+        Files.write(directory.resolve("integers.txt"), List.of("1"));
+        StatisticsSidecar sidecar = sidecar("integers.txt", true);
+        IntegerStats stats = sidecar.loadIntegers(false);
+        try (DataWriter writer = openIntegers(fileManager)) {
+            writer.write(2L);
+            stats.add(2);
+            writer.flush();
+            // Другой запуск без статистики дописывает число между порциями этого запуска
+            try (DataWriter other = openIntegers(new FileManager(new SilentConsole()))) {
+                other.write(100L);
+            }
+            writer.write(3L);
+            stats.add(3);
+        }
+        sidecar.save(stats);
+
+        IntegerStats loaded = sidecar("integers.txt", true).loadIntegers(false);
+
+        assertEquals(4, loaded.getCount());
+        assertEquals(BigInteger.valueOf(106), loaded.getSum());
+    }
+
+    private DataWriter openIntegers(FileManager manager) {
+        return manager.openColumnWriter(directory.toString(), "", "integers.txt", true, DataType.INTEGER);
+    }
+
+    /**
+     * Записывает выходной файл строк и сохраняет его статистику.
+     */
+    private void saveStrings() throws IOException {
+        Files.write(directory.resolve("strings.txt"), List.of("a", "bb", "a"));
+        StringStats stats = new StringStats(PRECISION, CAPACITY);
+        stats.add("a");
+        stats.add("bb");
+        stats.add("a");
+        sidecar("strings.txt", false).save(stats);
+    }
+
+    /**
+     * Проверяет статистику, пересчитанную по выходному файлу строк.
+     *
+     * @param stats загруженная статистика
+     */
+    private void assertRebuiltStrings(StringStats stats) {
+        assertEquals(3, stats.getCount());
+        assertEquals(1, stats.getMinLength());
+        assertEquals(2, stats.getMaxLength());
+        assertEquals("a", stats.getHeavyHitters().getTop(1).get(0).getLine());
+        assertEquals(2, stats.getHeavyHitters().getTop(1).get(0).getCount());
+    }
+
+    /**
+     * @return смещение набора частых строк: после количества, длин, флага, точности и регистров счетчика
+     */
+    private static int heavyHittersOffset() {
+        return HEADER + Long.BYTES + 2 * Integer.BYTES + 1 + 1 + (1 << PRECISION);
+    }
+
+    private StatisticsSidecar sidecar(String fileName, boolean append) {
+        return fileManager.openSidecar(directory.toString(), "", fileName, append);
+    }
+
+    /**
+     * Заменяет число в файле статистики.
+     *
+     * @param fileName название выходного файла
+     * @param offset   смещение числа в файле статистики
+     * @param value    новое значение
+     */
+    private void damage(String fileName, int offset, int value) throws IOException {
+        Path path = directory.resolve(fileName + StatisticsSidecar.EXTENSION);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(offset, value);
+        Files.write(path, bytes);
+    }
+}
@@ -0,0 +1,90 @@
+package Buffers;
+
+import java.util.Arrays;
+
+/**
+ * Расширяемый массив вещественных чисел типа {@code double}.
+ * В отличие от {@code List<Double>} хранит значения без упаковки в объекты.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class DoubleColumn {
+    //Начальная вместимость массива
+    private static final int DEFAULT_CAPACITY = 16;
+
+    //Хранимые значения
+    private double[] values;
+    //Количество хранимых значений
+    private int size = 0;
+
+    /**
+     * Создает пустой массив с начальной вместимостью по умолчанию.
+     */
+    public DoubleColumn() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает пустой массив с заданной начальной вместимостью.
+     *
+     * @param capacity начальная вместимость
+     */
+    public DoubleColumn(int capacity) {
+        values = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Добавляет значение в конец массива.
+     *
+     * @param value добавляемое значение
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity());
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Возвращает значение по индексу.
+     *
+     * @param index индекс значения
+     * @return значение
+     */
+    public double get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return values[index];
+    }
+
+    /**
+     * @return количество хранимых значений
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true}, если массив пуст
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаляет все значения, сохраняя выделенную память.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Вычисляет новую вместимость массива при его заполнении.
+     *
+     * @return новая вместимость
+     */
+    private int newCapacity() {
+        if (values.length == Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Превышен размер массива.");
+        return (int) Math.min((long) values.length + (values.length >> 1) + 1, Integer.MAX_VALUE - 8);
+    }
+}
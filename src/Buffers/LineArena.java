@@ -0,0 +1,208 @@
+package Buffers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Хранилище строк в больших байтовых блоках вместо отдельных объектов {@link String}.
+ * Каждая строка один раз кодируется в заданной кодировке и копируется в текущий блок вместе с символом
+ * новой строки, а сама строка сразу становится мусором. Поэтому сборщик мусора переносит между поколениями
+ * не миллионы мелких объектов, а несколько блоков по {@value #SLAB_SIZE} байт (при небольшой куче G1 выделяет
+ * их сразу в старом поколении).
+ * <p>
+ * Строка адресуется номером: для каждой хранится положение в блоке, длина в байтах и длина в символах,
+ * поэтому статистика длин считается без декодирования. Строки хранятся подряд в порядке добавления,
+ * и запись в файл сводится к записи занятой части каждого блока. Вся память освобождается одним вызовом
+ * {@link #release()}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class LineArena {
+    //Размер блока
+    static final int SLAB_SIZE = 1 << 20;
+    //Начальная вместимость индекса строк
+    private static final int DEFAULT_CAPACITY = 16;
+
+    //Кодировка строк
+    private final Charset charset;
+    //Блоки с байтами строк
+    private byte[][] slabs = new byte[0][];
+    //Количество занятых байтов каждого блока
+    private int[] used = new int[0];
+    //Количество блоков
+    private int slabCount = 0;
+
+    //Положение каждой строки: номер блока в старших 32 битах, смещение в младших
+    private long[] positions = new long[DEFAULT_CAPACITY];
+    //Длина каждой строки в байтах без символа новой строки
+    private int[] byteLengths = new int[DEFAULT_CAPACITY];
+    //Длина каждой строки в символах
+    private int[] lengths = new int[DEFAULT_CAPACITY];
+    //Количество строк
+    private int size = 0;
+
+    /**
+     * Создает пустое хранилище строк в кодировке по умолчанию.
+     */
+    public LineArena() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Создает пустое хранилище строк.
+     *
+     * @param charset кодировка строк
+     */
+    public LineArena(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Добавляет строку.
+     *
+     * @param line строка
+     */
+    public void add(String line) {
+        byte[] bytes = line.getBytes(charset);
+        add(bytes, 0, bytes.length, line.length());
+    }
+
+    /**
+     * Добавляет копию строки другого хранилища той же кодировки, не декодируя ее.
+     *
+     * @param source хранилище, из которого копируется строка
+     * @param index  номер строки в хранилище
+     */
+    public void add(LineArena source, int index) {
+        source.checkIndex(index);
+        long position = source.positions[index];
+        add(source.slabs[(int) (position >>> 32)], (int) position, source.byteLengths[index], source.lengths[index]);
+    }
+
+    /**
+     * Возвращает строку по номеру, декодируя ее из блока.
+     *
+     * @param index номер строки
+     * @return строка
+     */
+    public String get(int index) {
+        checkIndex(index);
+        long position = positions[index];
+        return new String(slabs[(int) (position >>> 32)], (int) position, byteLengths[index], charset);
+    }
+
+    /**
+     * Возвращает длину строки в символах, как {@link String#length()}, не декодируя строку.
+     *
+     * @param index номер строки
+     * @return длина строки
+     */
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    /**
+     * @return количество строк
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true}, если строк нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Записывает все строки в поток, каждую с символом новой строки, блоками целиком.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < slabCount; i++) {
+            out.write(slabs[i], 0, used[i]);
+        }
+    }
+
+    /**
+     * Удаляет все строки и освобождает всю занятую память.
+     */
+    public void release() {
+        slabs = new byte[0][];
+        used = new int[0];
+        slabCount = 0;
+        positions = new long[DEFAULT_CAPACITY];
+        byteLengths = new int[DEFAULT_CAPACITY];
+        lengths = new int[DEFAULT_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Копирует байты строки и символ новой строки в блок, начиная новый блок, если в текущем нет места.
+     * Строка длиннее блока получает собственный блок своего размера.
+     *
+     * @param bytes      массив с байтами строки
+     * @param offset     смещение строки в массиве
+     * @param byteLength длина строки в байтах
+     * @param length     длина строки в символах
+     */
+    private void add(byte[] bytes, int offset, int byteLength, int length) {
+        if (slabCount == 0 || SLAB_SIZE - used[slabCount - 1] <= byteLength) {
+            addSlab(Math.max(SLAB_SIZE, byteLength + 1));
+        }
+        int slab = slabCount - 1;
+        int start = used[slab];
+        System.arraycopy(bytes, offset, slabs[slab], start, byteLength);
+        slabs[slab][start + byteLength] = '\n';
+        used[slab] = start + byteLength + 1;
+        if (size == positions.length) {
+            int capacity = newCapacity();
+            positions = Arrays.copyOf(positions, capacity);
+            byteLengths = Arrays.copyOf(byteLengths, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        positions[size] = (long) slab << 32 | start;
+        byteLengths[size] = byteLength;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Начинает новый блок.
+     *
+     * @param capacity размер блока
+     */
+    private void addSlab(int capacity) {
+        if (slabCount == slabs.length) {
+            slabs = Arrays.copyOf(slabs, Math.max(4, slabCount * 2));
+            used = Arrays.copyOf(used, slabs.length);
+        }
+        slabs[slabCount++] = new byte[capacity];
+    }
+
+    /**
+     * Проверяет номер строки.
+     *
+     * @param index номер строки
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Вычисляет новую вместимость индекса строк при его заполнении.
+     *
+     * @return новая вместимость
+     */
+    private int newCapacity() {
+        if (positions.length == Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Превышен размер массива.");
+        return (int) Math.min((long) positions.length + (positions.length >> 1) + 1, Integer.MAX_VALUE - 8);
+    }
+}
@@ -0,0 +1,97 @@
+package Buffers;
+
+import java.util.Arrays;
+
+/**
+ * Расширяемый массив целых чисел типа {@code long}.
+ * В отличие от {@code List<Long>} хранит значения без упаковки в объекты.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class LongColumn {
+    //Начальная вместимость массива
+    private static final int DEFAULT_CAPACITY = 16;
+
+    //Хранимые значения
+    private long[] values;
+    //Количество хранимых значений
+    private int size = 0;
+
+    /**
+     * Создает пустой массив с начальной вместимостью по умолчанию.
+     */
+    public LongColumn() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает пустой массив с заданной начальной вместимостью.
+     *
+     * @param capacity начальная вместимость
+     */
+    public LongColumn(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Добавляет значение в конец массива.
+     *
+     * @param value добавляемое значение
+     */
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity());
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Возвращает значение по индексу.
+     *
+     * @param index индекс значения
+     * @return значение
+     */
+    public long get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return values[index];
+    }
+
+    /**
+     * @return количество хранимых значений
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true}, если массив пуст
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Упорядочивает значения по возрастанию.
+     */
+    public void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    /**
+     * Удаляет все значения, сохраняя выделенную память.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Вычисляет новую вместимость массива при его заполнении.
+     *
+     * @return новая вместимость
+     */
+    private int newCapacity() {
+        if (values.length == Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Превышен размер массива.");
+        return (int) Math.min((long) values.length + (values.length >> 1) + 1, Integer.MAX_VALUE - 8);
+    }
+}
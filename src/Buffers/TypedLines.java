@@ -0,0 +1,112 @@
+package Buffers;
+
+import Utility.DataType;
+
+import java.util.Arrays;
+
+/**
+ * Хранит последовательность классифицированных строк: тип каждой строки в исходном порядке
+ * и значения, разложенные по массивам своего типа.
+ * По типам строк исходный порядок можно восстановить, не храня сами строки.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class TypedLines {
+    //Все значения перечисления типов, индексируемые порядковым номером
+    private static final DataType[] TYPES = DataType.values();
+
+    //Порядковые номера типов строк в исходном порядке
+    private byte[] types = new byte[16];
+    //Количество строк
+    private int size = 0;
+
+    //Целые числа в исходном порядке
+    private final LongColumn integers = new LongColumn();
+    //Вещественные числа в исходном порядке
+    private final DoubleColumn floats = new DoubleColumn();
+    //Строки в исходном порядке
+    private final LineArena strings = new LineArena();
+
+    /**
+     * Добавляет целое число.
+     *
+     * @param value целое число
+     */
+    public void addInteger(long value) {
+        addType(DataType.INTEGER);
+        integers.add(value);
+    }
+
+    /**
+     * Добавляет вещественное число.
+     *
+     * @param value вещественное число
+     */
+    public void addFloat(double value) {
+        addType(DataType.FLOAT);
+        floats.add(value);
+    }
+
+    /**
+     * Добавляет строку.
+     *
+     * @param value строка
+     */
+    public void addString(String value) {
+        addType(DataType.STRING);
+        strings.add(value);
+    }
+
+    /**
+     * Возвращает тип строки по ее порядковому номеру.
+     *
+     * @param index порядковый номер строки
+     * @return тип строки
+     */
+    public DataType getType(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return TYPES[types[index]];
+    }
+
+    /**
+     * @return количество строк
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return целые числа в исходном порядке
+     */
+    public LongColumn getIntegers() {
+        return integers;
+    }
+
+    /**
+     * @return вещественные числа в исходном порядке
+     */
+    public DoubleColumn getFloats() {
+        return floats;
+    }
+
+    /**
+     * @return строки в исходном порядке
+     */
+    public LineArena getStrings() {
+        return strings;
+    }
+
+    /**
+     * Запоминает тип очередной строки.
+     *
+     * @param type тип строки
+     */
+    private void addType(DataType type) {
+        if (size == types.length) {
+            if (types.length == Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Превышен размер массива.");
+            types = Arrays.copyOf(types, (int) Math.min((long) types.length * 2, Integer.MAX_VALUE - 8));
+        }
+        types[size++] = (byte) type.ordinal();
+    }
+}
@@ -0,0 +1,136 @@
+package Engine;
+
+import Managers.DataWriter;
+import Managers.FileManager;
+import Managers.OutputSorting;
+import Managers.StatisticsSidecar;
+import Utility.CollectingConsole;
+import Utility.Console;
+import Utility.DataType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Приемник, записывающий данные каждого типа в свой выходной файл.
+ * Формат файла определяется его названием, как в {@link FileManager#openColumnWriter}:
+ * {@code .gz} - сжатый, {@code .bin} - двоичный файл чисел. Файл создается только при записи первого значения.
+ * <p>
+ * Ошибки записи не прерывают обработку: они выводятся в переданную консоль при закрытии,
+ * после чего {@link #close()} выбрасывает исключение с текстами ошибок.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class FileSink implements Sink {
+    //Консоль, запоминающая ошибки записи
+    private final CollectingConsole errors;
+    //Писатели выходных файлов
+    private final DataWriter integersWriter;
+    private final DataWriter floatsWriter;
+    private final DataWriter stringsWriter;
+
+    /**
+     * Создает приемник, записывающий данные в файлы integers.txt, floats.txt и strings.txt.
+     *
+     * @param directory директория выходных файлов
+     * @param prefix    префикс названий файлов
+     * @param append    флаг дописывания в конец файлов
+     */
+    public FileSink(Path directory, String prefix, boolean append) {
+        this(null, directory.toString(), prefix, "integers.txt", "floats.txt", "strings.txt", append);
+    }
+
+    /**
+     * Создает приемник, записывающий данные в указанные файлы.
+     *
+     * @param console      консоль, в которую выводятся ошибки записи, или {@code null}
+     * @param filepath     путь к выходным файлам
+     * @param prefix       префикс названий файлов
+     * @param integersFile название файла целых чисел
+     * @param floatsFile   название файла вещественных чисел
+     * @param stringsFile  название файла строк
+     * @param append       флаг дописывания в конец файлов
+     */
+    public FileSink(Console console, String filepath, String prefix, String integersFile, String floatsFile,
+                    String stringsFile, boolean append) {
+        this(console, filepath, prefix, integersFile, floatsFile, stringsFile, append, null);
+    }
+
+    /**
+     * Создает приемник, записывающий данные в указанные файлы упорядоченными.
+     * Упорядоченные данные записываются в файлы при закрытии приемника.
+     *
+     * @param console      консоль, в которую выводятся ошибки записи, или {@code null}
+     * @param filepath     путь к выходным файлам
+     * @param prefix       префикс названий файлов
+     * @param integersFile название файла целых чисел
+     * @param floatsFile   название файла вещественных чисел
+     * @param stringsFile  название файла строк
+     * @param append       флаг дописывания в конец файлов
+     * @param sorting      параметры упорядочивания или {@code null}, чтобы записывать данные в порядке чтения
+     */
+    public FileSink(Console console, String filepath, String prefix, String integersFile, String floatsFile,
+                    String stringsFile, boolean append, OutputSorting sorting) {
+        this(console, filepath, prefix, integersFile, floatsFile, stringsFile, append, sorting, List.of());
+    }
+
+    /**
+     * Создает приемник, записывающий данные в указанные файлы и сообщающий хранилищам накопленной
+     * статистики этих файлов о дописанных данных, см. {@link StatisticsSidecar}.
+     *
+     * @param console      консоль, в которую выводятся ошибки записи, или {@code null}
+     * @param filepath     путь к выходным файлам
+     * @param prefix       префикс названий файлов
+     * @param integersFile название файла целых чисел
+     * @param floatsFile   название файла вещественных чисел
+     * @param stringsFile  название файла строк
+     * @param append       флаг дописывания в конец файлов
+     * @param sorting      параметры упорядочивания или {@code null}, чтобы записывать данные в порядке чтения
+     * @param sidecars     хранилища статистики выходных файлов
+     */
+    public FileSink(Console console, String filepath, String prefix, String integersFile, String floatsFile,
+                    String stringsFile, boolean append, OutputSorting sorting, List<StatisticsSidecar> sidecars) {
+        this.errors = new CollectingConsole(console);
+        FileManager fileManager = new FileManager(errors);
+        fileManager.setSorting(sorting);
+        for (StatisticsSidecar sidecar : sidecars) {
+            fileManager.addSidecar(sidecar);
+        }
+        this.integersWriter = fileManager.openColumnWriter(filepath, prefix, integersFile, append, DataType.INTEGER);
+        this.floatsWriter = fileManager.openColumnWriter(filepath, prefix, floatsFile, append, DataType.FLOAT);
+        this.stringsWriter = fileManager.openWriter(filepath, prefix, stringsFile, append);
+    }
+
+    @Override
+    public void writeInteger(long value) {
+        integersWriter.write(value);
+    }
+
+    @Override
+    public void writeFloat(double value) {
+        floatsWriter.write(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        stringsWriter.write(value);
+    }
+
+    /**
+     * Закрывает выходные файлы.
+     *
+     * @throws IOException если при записи в файлы возникли ошибки; сообщение содержит их тексты
+     */
+    @Override
+    public void close() throws IOException {
+        integersWriter.close();
+        floatsWriter.close();
+        stringsWriter.close();
+        List<String> messages = errors.getErrors();
+        if (!messages.isEmpty()) {
+            throw new IOException(String.join(" ", messages));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package Engine;
+
+import Exceptions.FilterException;
+import Managers.FileManager;
+import Managers.MetricsManager;
+import Managers.Source;
+import Statistics.DistinctCounter;
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+import Utility.ClassifySampler;
+import Utility.CollectingConsole;
+import Utility.Console;
+import Utility.ParsedValue;
+
+import java.util.List;
+
+/**
+ * Сортирует строки источников по типам для встраивания в другие приложения.
+ * Строки читаются поочередно из каждого источника, тип каждой строки определяется сразу, значение
+ * передается в {@link Sink} и учитывается в статистике, поэтому данные не накапливаются в памяти.
+ * <p>
+ * Движок не завершает программу: недоступные источники пропускаются, а тексты ошибок возвращаются
+ * в {@link FilterResult}; если читать нечего, выбрасывается {@link FilterException}.
+ * В консоль ошибки выводятся, только если она передана при создании движка.
+ * Показатели выполнения собираются, только если вызывающий передал свой {@link MetricsManager}.
+ * Экземпляр неизменяем, поэтому один движок можно использовать из нескольких потоков одновременно,
+ * если у каждого вызова свои источники, приемник и статистика.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class FilterEngine {
+    //Точность подсчета различных строк по умолчанию
+    public static final int DEFAULT_PRECISION = 14;
+    //Количество самых частых строк по умолчанию
+    public static final int DEFAULT_TOP = 10;
+
+    //Флаг подсчета распределения чисел
+    private final boolean quantiles;
+    //Флаг подсчета уникальных и самых частых строк
+    private final boolean distinct;
+    //Точность подсчета различных строк
+    private final int precision;
+    //Количество самых частых строк
+    private final int top;
+    //Консоль, в которую дополнительно выводятся ошибки, или null
+    private final Console console;
+
+    /**
+     * Создает движок, считающий только краткую и полную статистику.
+     */
+    public FilterEngine() {
+        this(false, false, DEFAULT_PRECISION, DEFAULT_TOP, null);
+    }
+
+    /**
+     * Создает движок.
+     *
+     * @param quantiles флаг подсчета распределения чисел
+     * @param distinct  флаг подсчета уникальных и самых частых строк
+     * @param precision точность подсчета различных строк
+     * @param top       количество самых частых строк
+     * @throws IllegalArgumentException при некорректной точности или количестве строк
+     */
+    public FilterEngine(boolean quantiles, boolean distinct, int precision, int top) {
+        this(quantiles, distinct, precision, top, null);
+    }
+
+    /**
+     * Создает движок, выводящий ошибки чтения в консоль по мере их возникновения.
+     *
+     * @param quantiles флаг подсчета распределения чисел
+     * @param distinct  флаг подсчета уникальных и самых частых строк
+     * @param precision точность подсчета различных строк
+     * @param top       количество самых частых строк
+     * @param console   консоль, в которую дополнительно выводятся ошибки, или {@code null}
+     * @throws IllegalArgumentException при некорректной точности или количестве строк
+     */
+    public FilterEngine(boolean quantiles, boolean distinct, int precision, int top, Console console) {
+        if (precision < DistinctCounter.MIN_PRECISION || precision > DistinctCounter.MAX_PRECISION) {
+            throw new IllegalArgumentException("Некорректная точность подсчета уникальных строк.");
+        }
+        if (top <= 0) {
+            throw new IllegalArgumentException("Некорректное количество частых строк.");
+        }
+        this.quantiles = quantiles;
+        this.distinct = distinct;
+        this.precision = precision;
+        this.top = top;
+        this.console = console;
+    }
+
+    /**
+     * Определяет количество хранимых частых строк.
+     * Хранится в десять раз больше строк, чем выводится, чтобы завышение счетчиков редких строк
+     * не вытесняло действительно частые.
+     *
+     * @param top количество выводимых самых частых строк
+     * @return наибольшее количество хранимых частых строк
+     */
+    public static int heavyHittersCapacity(int top) {
+        return (int) Math.min(Integer.MAX_VALUE / 2, top * 10L);
+    }
+
+    /**
+     * Сортирует строки источников с новой статистикой.
+     *
+     * @param sources источники строк
+     * @param sink    приемник данных; не закрывается
+     * @return количество строк, статистика и ошибки
+     * @throws FilterException если не удалось открыть ни одного источника или все доступные источники пусты
+     */
+    public FilterResult run(List<Source> sources, Sink sink) {
+        StringStats stringStats = distinct ? new StringStats(precision, heavyHittersCapacity(top)) : new StringStats();
+        return run(sources, sink, new IntegerStats(quantiles), new FloatStats(quantiles), stringStats);
+    }
+
+    /**
+     * Сортирует строки источников, дополняя переданную статистику, например накопленную прошлыми запусками.
+     *
+     * @param sources      источники строк
+     * @param sink         приемник данных; не закрывается
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     * @return количество строк, статистика и ошибки
+     * @throws FilterException если не удалось открыть ни одного источника или все доступные источники пусты
+     */
+    public FilterResult run(List<Source> sources, Sink sink, IntegerStats integerStats, FloatStats floatStats,
+                            StringStats stringStats) {
+        return run(sources, sink, integerStats, floatStats, stringStats, null);
+    }
+
+    /**
+     * Сортирует строки источников, дополняя переданную статистику и собирая показатели выполнения.
+     *
+     * @param sources      источники строк
+     * @param sink         приемник данных; не закрывается
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     * @param metrics      сборщик показателей этого вызова или {@code null}, чтобы не собирать показатели
+     * @return количество строк, статистика и ошибки
+     * @throws FilterException если не удалось открыть ни одного источника или все доступные источники пусты
+     */
+    public FilterResult run(List<Source> sources, Sink sink, IntegerStats integerStats, FloatStats floatStats,
+                            StringStats stringStats, MetricsManager metrics) {
+        CollectingConsole errors = new CollectingConsole(console);
+        FileManager fileManager = new FileManager(errors);
+        fileManager.setMetrics(metrics);
+        ClassifySampler classifier = new ClassifySampler();
+        ParsedValue value = new ParsedValue();
+        long lines;
+        try {
+            lines = fileManager.readSources(sources, line -> {
+                switch (classifier.classify(line, value)) {
+                    case INTEGER:
+                        integerStats.add(value.getLong());
+                        sink.writeInteger(value.getLong());
+                        break;
+                    case FLOAT:
+                        floatStats.add(value.getDouble());
+                        sink.writeFloat(value.getDouble());
+                        break;
+                    case STRING:
+                        stringStats.add(line);
+                        sink.writeString(line);
+                        break;
+                }
+            });
+        } finally {
+            classifier.report(fileManager.getMetrics());
+        }
+        return new FilterResult(lines, integerStats, floatStats, stringStats, errors.getErrors());
+    }
+}
@@ -0,0 +1,78 @@
+package Engine;
+
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+
+import java.util.List;
+
+/**
+ * Результат сортировки: количество считанных строк, статистика по каждому типу
+ * и тексты ошибок, не помешавших сортировке, например о ненайденных входных файлах.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class FilterResult {
+    //Количество считанных строк
+    private final long lines;
+    //Статистика по каждому типу
+    private final IntegerStats integerStats;
+    private final FloatStats floatStats;
+    private final StringStats stringStats;
+    //Тексты ошибок в порядке возникновения
+    private final List<String> errors;
+
+    /**
+     * Создает результат сортировки.
+     *
+     * @param lines        количество считанных строк
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     * @param errors       тексты ошибок
+     */
+    FilterResult(long lines, IntegerStats integerStats, FloatStats floatStats, StringStats stringStats,
+                 List<String> errors) {
+        this.lines = lines;
+        this.integerStats = integerStats;
+        this.floatStats = floatStats;
+        this.stringStats = stringStats;
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * @return количество считанных строк
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * @return статистика по целым числам
+     */
+    public IntegerStats getIntegerStats() {
+        return integerStats;
+    }
+
+    /**
+     * @return статистика по вещественным числам
+     */
+    public FloatStats getFloatStats() {
+        return floatStats;
+    }
+
+    /**
+     * @return статистика по строкам
+     */
+    public StringStats getStringStats() {
+        return stringStats;
+    }
+
+    /**
+     * @return тексты ошибок в порядке возникновения; пустой список, если ошибок не было
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
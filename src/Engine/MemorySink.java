@@ -0,0 +1,58 @@
+package Engine;
+
+import Buffers.DoubleColumn;
+import Buffers.LongColumn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приемник, собирающий отсортированные данные в памяти.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class MemorySink implements Sink {
+    //Целые числа
+    private final LongColumn integers = new LongColumn();
+    //Вещественные числа
+    private final DoubleColumn floats = new DoubleColumn();
+    //Строки
+    private final List<String> strings = new ArrayList<>();
+
+    @Override
+    public void writeInteger(long value) {
+        integers.add(value);
+    }
+
+    @Override
+    public void writeFloat(double value) {
+        floats.add(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        strings.add(value);
+    }
+
+    /**
+     * @return целые числа в порядке чтения
+     */
+    public LongColumn getIntegers() {
+        return integers;
+    }
+
+    /**
+     * @return вещественные числа в порядке чтения
+     */
+    public DoubleColumn getFloats() {
+        return floats;
+    }
+
+    /**
+     * @return строки в порядке чтения
+     */
+    public List<String> getStrings() {
+        return strings;
+    }
+}
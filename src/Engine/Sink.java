@@ -0,0 +1,75 @@
+package Engine;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Приемник отсортированных данных: получает каждое значение сразу после определения его типа,
+ * в порядке чтения строк. Реализации: {@link FileSink} - выходные файлы, {@link MemorySink} - списки в памяти,
+ * {@link #of(LongConsumer, DoubleConsumer, Consumer)} - обработчик каждого типа.
+ * <p>
+ * Приемник используется одним вызовом {@link FilterEngine#run} и закрывается вызывающим кодом.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public interface Sink extends AutoCloseable {
+    /**
+     * Принимает целое число.
+     *
+     * @param value число
+     */
+    void writeInteger(long value);
+
+    /**
+     * Принимает вещественное число.
+     *
+     * @param value число
+     */
+    void writeFloat(double value);
+
+    /**
+     * Принимает строку.
+     *
+     * @param value строка
+     */
+    void writeString(String value);
+
+    /**
+     * Завершает прием данных.
+     *
+     * @throws IOException если принятые данные не удалось сохранить
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Создает приемник, передающий значения каждого типа своему обработчику.
+     *
+     * @param integers обработчик целых чисел
+     * @param floats   обработчик вещественных чисел
+     * @param strings  обработчик строк
+     * @return приемник
+     */
+    static Sink of(LongConsumer integers, DoubleConsumer floats, Consumer<String> strings) {
+        return new Sink() {
+            @Override
+            public void writeInteger(long value) {
+                integers.accept(value);
+            }
+
+            @Override
+            public void writeFloat(double value) {
+                floats.accept(value);
+            }
+
+            @Override
+            public void writeString(String value) {
+                strings.accept(value);
+            }
+        };
+    }
+}
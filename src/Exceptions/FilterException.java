@@ -0,0 +1,21 @@
+package Exceptions;
+
+/**
+ * Сигнализирует о том, что сортировку невозможно продолжить.
+ * <p>
+ * Исключение {@code FilterException} выбрасывается вместо завершения программы, если не удалось прочитать
+ * ни одного входного файла или все доступные файлы пусты. Завершать ли после этого работу, решает вызывающий код:
+ * консольная утилита завершается с кодом 1, а встроенная в другое приложение сортировка продолжает его работу.
+ * Исключение непроверяемое, так как возникает при чтении внутри обработчиков строк и этапов конвейера.
+ * </p>
+ */
+public class FilterException extends RuntimeException {
+    /**
+     * Создает {@code FilterException}, с подробным сообщением.
+     *
+     * @param message уточнение проблемы
+     */
+    public FilterException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,30 @@
+import Exceptions.FilterException;
+import Exceptions.IllegalKeyException;
 import Managers.FileManager;
+import Server.JobClient;
+import Server.JobServer;
 import Utility.Filter;
 import Utility.StandartConsole;
 
 public class Main {
     public static void main(String[] args) {
         StandartConsole console = new StandartConsole();
-        FileManager fileManager = new FileManager(console);
-        Filter filter = new Filter(fileManager, console, args);
-        filter.solve();
+        try {
+            if (args.length > 0 && args[0].equals("--server")) {
+                JobServer.create(console, args).run();
+                return;
+            }
+            int code = new JobClient(console, JobServer.socketPath()).forward(args);
+            if (code > 0) System.exit(code);
+            if (code == 0) return;
+            FileManager fileManager = new FileManager(console);
+            Filter filter = new Filter(fileManager, console, args);
+            filter.solve();
+        } catch (IllegalKeyException e) {
+            console.printError(e.getMessage());
+        } catch (FilterException e) {
+            console.printError(e.getMessage());
+            System.exit(1);
+        }
     }
 }
@@ -0,0 +1,208 @@
+package Managers;
+
+import Utility.Console;
+import Utility.DataType;
+import Utility.StandartConsole;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоково читает числа из двоичного файла, записанного {@link BinaryColumnWriter}.
+ * В памяти хранится только текущий блок, поэтому размер файла не ограничен.
+ * Файлы с расширением {@code .gz} распаковываются по мере чтения.
+ * <p>
+ * Запуск {@code java -cp util.jar Managers.BinaryColumnReader файл...} печатает числа файлов в текстовом виде,
+ * по одному в строке, как в обычных выходных файлах.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class BinaryColumnReader implements AutoCloseable {
+    //Размер заголовка файла
+    public static final int HEADER_SIZE = 8;
+    //Сигнатура формата
+    private static final byte[] MAGIC = {'S', 'C', 'O', 'L'};
+    //Версия формата
+    private static final byte VERSION = 1;
+
+    //Поток чтения
+    private final DataInputStream in;
+    //Тип чисел файла
+    private final DataType type;
+    //Данные текущего блока
+    private byte[] block = new byte[0];
+    //Размер данных текущего блока
+    private int length = 0;
+    //Позиция следующего числа в данных блока
+    private int position = 0;
+    //Количество непрочитанных чисел текущего блока
+    private int remaining = 0;
+    //Предыдущее целое число блока
+    private long previous = 0;
+
+    /**
+     * Создает читатель файла, заголовок которого уже прочитан.
+     *
+     * @param in   поток чтения, установленный на первый блок
+     * @param type тип чисел файла
+     */
+    private BinaryColumnReader(DataInputStream in, DataType type) {
+        this.in = in;
+        this.type = type;
+    }
+
+    /**
+     * Открывает двоичный файл и читает его заголовок.
+     *
+     * @param fileName название файла
+     * @return читатель файла
+     * @throws IOException при невозможности открыть файл или если он не является двоичным файлом чисел
+     */
+    public static BinaryColumnReader open(String fileName) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(FileManager.openInputStream(fileName), 64 * 1024));
+        try {
+            byte[] header = new byte[HEADER_SIZE];
+            in.readFully(header);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) throw new IOException("Файл " + fileName + " не является двоичным файлом чисел.");
+            }
+            if (header[4] != VERSION) throw new IOException("Неподдерживаемая версия файла " + fileName + ".");
+            if (header[5] == DataType.INTEGER.ordinal()) return new BinaryColumnReader(in, DataType.INTEGER);
+            if (header[5] == DataType.FLOAT.ordinal()) return new BinaryColumnReader(in, DataType.FLOAT);
+            throw new IOException("Некорректный тип чисел файла " + fileName + ".");
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Составляет заголовок файла.
+     *
+     * @param type тип чисел файла
+     * @return заголовок
+     */
+    static byte[] header(DataType type) {
+        return new byte[]{MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3], VERSION, (byte) type.ordinal(), 0, 0};
+    }
+
+    /**
+     * @return тип чисел файла: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * Проверяет, остались ли непрочитанные числа, читая при необходимости следующий блок.
+     *
+     * @return {@code true}, если есть следующее число
+     * @throws IOException при ошибке чтения или поврежденном блоке
+     */
+    public boolean hasNext() throws IOException {
+        while (remaining == 0) {
+            int count;
+            try {
+                count = Integer.reverseBytes(in.readInt());
+            } catch (EOFException e) {
+                return false;
+            }
+            int length = Integer.reverseBytes(in.readInt());
+            if (count < 0 || count > BinaryColumnWriter.BLOCK_SIZE || length < 0
+                    || length > count * 10 || type == DataType.FLOAT && length != count * 8) {
+                throw new IOException("Поврежденный блок двоичного файла.");
+            }
+            if (block.length < length) block = new byte[length];
+            in.readFully(block, 0, length);
+            this.length = length;
+            position = 0;
+            remaining = count;
+            previous = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Читает следующее целое число.
+     *
+     * @return число
+     * @throws IOException при ошибке чтения или поврежденном блоке
+     */
+    public long nextLong() throws IOException {
+        if (type != DataType.INTEGER) throw new IllegalStateException("Файл содержит вещественные числа.");
+        if (!hasNext()) throw new NoSuchElementException();
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63 || position == length) throw new IOException("Поврежденный блок двоичного файла.");
+            b = block[position++];
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        remaining--;
+        previous += (zigzag >>> 1) ^ -(zigzag & 1);
+        return previous;
+    }
+
+    /**
+     * Читает следующее вещественное число.
+     *
+     * @return число
+     * @throws IOException при ошибке чтения или поврежденном блоке
+     */
+    public double nextDouble() throws IOException {
+        if (type != DataType.FLOAT) throw new IllegalStateException("Файл содержит целые числа.");
+        if (!hasNext()) throw new NoSuchElementException();
+        long bits = 0;
+        for (int j = 0; j < 8; j++) {
+            bits |= (long) (block[position++] & 0xFF) << (8 * j);
+        }
+        remaining--;
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Закрывает файл.
+     *
+     * @throws IOException при ошибке закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Печатает числа переданных двоичных файлов в текстовом виде, по одному в строке.
+     *
+     * @param args названия файлов
+     */
+    public static void main(String[] args) {
+        Console console = new StandartConsole();
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        try {
+            for (String fileName : args) {
+                try (BinaryColumnReader reader = open(fileName)) {
+                    while (reader.hasNext()) {
+                        out.write(reader.getType() == DataType.INTEGER
+                                ? Long.toString(reader.nextLong()) : Double.toString(reader.nextDouble()));
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    out.flush();
+                    console.printError("не удалось прочитать " + fileName + ".");
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            console.printError("не удалось вывести данные.");
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package Managers;
+
+import Utility.Console;
+import Utility.DataType;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Предназначен для записи целых или вещественных чисел в компактный двоичный файл.
+ * Файл начинается с заголовка {@link BinaryColumnReader#HEADER_SIZE} байт: сигнатура, версия формата и тип чисел.
+ * Далее идут блоки не больше чем по {@value #BLOCK_SIZE} чисел: количество чисел и размер данных блока
+ * в байтах (целые числа по 4 байта, little-endian), затем сами данные.
+ * <p>
+ * Целые числа в блоке записываются разностями с предыдущим числом блока (первое - с нулем), каждая разность
+ * кодируется zigzag и varint, поэтому близкие числа занимают один-два байта. Вещественные числа записываются
+ * как есть, по 8 байт little-endian. Каждый блок декодируется независимо от остальных.
+ * <p>
+ * Как и {@link LineWriter}, файл открывается при записи первого числа, а ошибки выводятся при закрытии.
+ * При дописывании в непустой файл заголовок не повторяется, а проверяется, что файл того же формата и типа.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class BinaryColumnWriter implements DataWriter {
+    //Наибольшее количество чисел в блоке
+    static final int BLOCK_SIZE = 4096;
+    //Наибольший размер числа в кодировке varint
+    private static final int MAX_VARINT_SIZE = 10;
+
+    //Консоль для вывода ошибок
+    private final Console console;
+    //Путь к выходному файлу
+    private final String file;
+    //Название выходного файла
+    private final String fileName;
+    //Флаг дописывания в конец файла
+    private final boolean append;
+    //Получатель сведений о дописанных в файл порциях или null
+    private final OutputFile.AppendListener listener;
+    //Тип записываемых чисел
+    private final DataType type;
+
+    //Поток записи, создается при записи первого числа
+    private OutputStream out;
+    //Текст первой возникшей ошибки
+    private String error;
+    //Числа текущего блока; вещественные хранятся битами
+    private final long[] values = new long[BLOCK_SIZE];
+    //Количество чисел в текущем блоке
+    private int count = 0;
+    //Буфер кодирования блока
+    private final byte[] block = new byte[8 + BLOCK_SIZE * MAX_VARINT_SIZE];
+
+    /**
+     * Создает писатель в двоичный выходной файл.
+     *
+     * @param console  консоль
+     * @param file     путь к выходному файлу
+     * @param fileName название выходного файла
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     * @param type     тип записываемых чисел: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     */
+    BinaryColumnWriter(Console console, String file, String fileName, boolean append, OutputFile.AppendListener listener, DataType type) {
+        this.console = console;
+        this.file = file;
+        this.fileName = fileName;
+        this.append = append;
+        this.listener = listener;
+        this.type = type;
+    }
+
+    /**
+     * Записывает число, заданное текстом. Если строка не является числом типа файла, запись прекращается,
+     * а ошибка выводится при закрытии.
+     *
+     * @param line записываемая строка
+     */
+    @Override
+    public void write(String line) {
+        if (error != null) return;
+        try {
+            if (type == DataType.INTEGER) {
+                write(Long.parseLong(line));
+            } else {
+                write(Double.parseDouble(line));
+            }
+        } catch (NumberFormatException e) {
+            error = "Не удалось записать в двоичный файл " + fileName + " строку, не являющуюся числом.";
+        }
+    }
+
+    /**
+     * Записывает целое число.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(long value) {
+        add(value);
+    }
+
+    /**
+     * Записывает вещественное число.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(double value) {
+        add(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Добавляет число в текущий блок и записывает блок, когда он заполнен.
+     *
+     * @param value число или биты вещественного числа
+     */
+    private void add(long value) {
+        if (error != null) return;
+        values[count++] = value;
+        if (count == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Записывает текущий блок, открывая файл, если он еще не открыт.
+     */
+    private void writeBlock() {
+        if (count == 0) return;
+        int length = type == DataType.INTEGER ? encodeIntegers() : encodeFloats();
+        putInt(0, count);
+        putInt(4, length);
+        count = 0;
+        try {
+            if (out == null) {
+                open();
+            }
+            out.write(block, 0, 8 + length);
+        } catch (IOException e) {
+            if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Кодирует целые числа блока разностями в zigzag и varint.
+     *
+     * @return размер данных блока в байтах
+     */
+    private int encodeIntegers() {
+        int position = 8;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = values[i] - previous;
+            previous = values[i];
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                block[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            block[position++] = (byte) zigzag;
+        }
+        return position - 8;
+    }
+
+    /**
+     * Кодирует вещественные числа блока по 8 байт little-endian.
+     *
+     * @return размер данных блока в байтах
+     */
+    private int encodeFloats() {
+        int position = 8;
+        for (int i = 0; i < count; i++) {
+            long bits = values[i];
+            for (int j = 0; j < 8; j++) {
+                block[position++] = (byte) (bits >>> (8 * j));
+            }
+        }
+        return position - 8;
+    }
+
+    /**
+     * Записывает целое число в буфер блока в порядке little-endian.
+     *
+     * @param position позиция в буфере
+     * @param value    число
+     */
+    private void putInt(int position, int value) {
+        block[position] = (byte) value;
+        block[position + 1] = (byte) (value >>> 8);
+        block[position + 2] = (byte) (value >>> 16);
+        block[position + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Открывает выходной файл и записывает заголовок или, при дописывании в непустой файл, проверяет его.
+     *
+     * @throws IOException при невозможности открыть файл или несовпадении формата
+     */
+    private void open() throws IOException {
+        boolean continued = append && new File(file).length() > 0;
+        if (continued) {
+            try (BinaryColumnReader reader = BinaryColumnReader.open(file)) {
+                if (reader.getType() != type) throw new IOException(file);
+            } catch (IOException e) {
+                error = "Не удалось дописать в " + file + ": файл другого формата.";
+                throw e;
+            }
+        }
+        try {
+            out = new BufferedOutputStream(FileManager.openOutputStream(file, append, listener), 64 * 1024);
+            if (!continued) {
+                out.write(BinaryColumnReader.header(type));
+            }
+        } catch (IOException e) {
+            if (error == null) error = "Не удалось записать в " + file + ".";
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает неполный текущий блок и передает записанные данные в файл.
+     */
+    @Override
+    public void flush() {
+        writeBlock();
+        if (out == null || error != null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Записывает неполный текущий блок, закрывает выходной файл и выводит в консоль ошибку,
+     * если она возникла во время записи.
+     */
+    @Override
+    public void close() {
+        writeBlock();
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+            }
+            out = null;
+        }
+        if (error != null) {
+            console.printError(error);
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Managers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул прямых буферов записи.
+ * Прямые буферы дорого создавать, поэтому после закрытия файла буфер возвращается в пул
+ * и переиспользуется следующими писателями.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public final class BufferPool {
+    //Размер буфера
+    public static final int BUFFER_SIZE = 1024 * 1024;
+    //Наибольшее количество буферов, хранимых в пуле
+    private static final int MAX_POOLED = 16;
+
+    //Свободные буферы
+    private static final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    //Количество свободных буферов
+    private static final AtomicInteger freeCount = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    /**
+     * Выдает очищенный буфер из пула или создает новый.
+     *
+     * @return буфер размером {@value #BUFFER_SIZE} байт
+     */
+    public static ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        freeCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Возвращает буфер в пул. Если пул заполнен, буфер освобождается сборщиком мусора.
+     *
+     * @param buffer возвращаемый буфер
+     */
+    public static void release(ByteBuffer buffer) {
+        if (buffer.capacity() == BUFFER_SIZE && freeCount.incrementAndGet() <= MAX_POOLED) {
+            free.offer(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package Managers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Интерфейс {@code ByteLineConsumer} должен быть реализован классом, обрабатывающим строки,
+ * считанные в виде диапазонов байтов без перевода в {@link String}.
+ */
+@FunctionalInterface
+public interface ByteLineConsumer {
+    /**
+     * Обрабатывает строку, занимающую диапазон байтов буфера.
+     * Буфер действителен только во время вызова, сохранять ссылку на него нельзя.
+     *
+     * @param buffer буфер со строкой
+     * @param from   индекс первого байта строки
+     * @param to     индекс, следующий за последним байтом строки (без символов перевода строки)
+     */
+    void accept(ByteBuffer buffer, int from, int to);
+}
@@ -0,0 +1,218 @@
+package Managers;
+
+import Utility.Console;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Предназначен для построчной записи в выходной файл диапазонов байтов входных файлов.
+ * Строки копируются в прямой буфер из {@link BufferPool} без создания {@link String}, а длинные строки
+ * записываются вместе с буфером одной собирающей записью в канал без копирования.
+ * Файл открывается лениво, при записи первой строки. Ошибки записи не прерывают обработку,
+ * а запоминаются и выводятся в консоль при закрытии писателя.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class ByteLineWriter implements AutoCloseable {
+    //Строки не короче этого размера записываются в канал напрямую, без копирования в буфер
+    private static final int DIRECT_WRITE_SIZE = BufferPool.BUFFER_SIZE / 4;
+
+    //Консоль для вывода ошибок
+    private final Console console;
+    //Путь к выходному файлу
+    private final String file;
+    //Название выходного файла
+    private final String fileName;
+    //Флаг дописывания в конец файла
+    private final boolean append;
+    //Получатель сведений о дописанных в файл порциях или null
+    private final OutputFile.AppendListener listener;
+
+    //Выходной файл, открывается при записи первой строки
+    private OutputFile output;
+    //Буфер записи
+    private ByteBuffer buffer;
+    //Текст первой возникшей ошибки
+    private String error;
+    //Буфер для перевода целых чисел в текст
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Создает писатель в выходной файл.
+     *
+     * @param console  консоль
+     * @param file     путь к выходному файлу
+     * @param fileName название выходного файла
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     */
+    ByteLineWriter(Console console, String file, String fileName, boolean append, OutputFile.AppendListener listener) {
+        this.console = console;
+        this.file = file;
+        this.fileName = fileName;
+        this.append = append;
+        this.listener = listener;
+    }
+
+    /**
+     * Записывает диапазон байтов как строку, дополняя его символом новой строки.
+     *
+     * @param source буфер со строкой
+     * @param from   индекс первого байта строки
+     * @param to     индекс, следующий за последним байтом строки
+     */
+    public void write(ByteBuffer source, int from, int to) {
+        if (!prepare()) return;
+        int length = to - from;
+        try {
+            if (length + 1 > buffer.remaining()) {
+                if (length >= DIRECT_WRITE_SIZE) {
+                    ByteBuffer line = source.duplicate().limit(to).position(from);
+                    output.write(new ByteBuffer[]{buffer.flip(), line, ByteBuffer.wrap(new byte[]{'\n'})});
+                    buffer.clear();
+                    return;
+                }
+                flush();
+            }
+            buffer.put(buffer.position(), source, from, length);
+            buffer.position(buffer.position() + length);
+            buffer.put((byte) '\n');
+        } catch (IOException e) {
+            if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Записывает строку в кодировке UTF-8, дополняя ее символом новой строки.
+     *
+     * @param line записываемая строка
+     */
+    public void write(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        write(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Записывает целое число, дополняя его символом новой строки.
+     * Если исходная запись числа совпадает с его стандартной записью, она копируется без изменений.
+     *
+     * @param value  значение числа
+     * @param source буфер с исходной записью числа
+     * @param from   индекс первого байта записи
+     * @param to     индекс, следующий за последним байтом записи
+     */
+    public void writeInteger(long value, ByteBuffer source, int from, int to) {
+        if (isCanonical(source, from, to)) {
+            write(source, from, to);
+            return;
+        }
+        int position = digits.length;
+        boolean negative = value < 0;
+        // Цифры получаем из отрицательного значения, чтобы корректно обработать Long.MIN_VALUE
+        long rest = negative ? value : -value;
+        do {
+            digits[--position] = (byte) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) digits[--position] = '-';
+        write(ByteBuffer.wrap(digits), position, digits.length);
+    }
+
+    /**
+     * Записывает вещественное число в стандартной записи, дополняя его символом новой строки.
+     *
+     * @param value значение числа
+     */
+    public void writeFloat(double value) {
+        if (!prepare()) return;
+        String text = Double.toString(value);
+        try {
+            if (text.length() + 1 > buffer.remaining()) flush();
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+            buffer.put((byte) '\n');
+        } catch (IOException e) {
+            if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Проверяет, совпадает ли запись целого числа с той, которую дает {@link Long#toString(long)}:
+     * только цифры ASCII, без знака плюс и без ведущих нулей.
+     *
+     * @param source буфер с записью числа
+     * @param from   индекс первого байта записи
+     * @param to     индекс, следующий за последним байтом записи
+     * @return true, если запись стандартная, иначе false
+     */
+    private static boolean isCanonical(ByteBuffer source, int from, int to) {
+        int i = from;
+        if (source.get(i) == '-') i++;
+        if (source.get(i) == '0') return to - from == 1;
+        for (; i < to; i++) {
+            byte b = source.get(i);
+            if (b < '0' || b > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Открывает файл и выделяет буфер перед первой записью.
+     *
+     * @return {@code false}, если файл недоступен для записи
+     */
+    private boolean prepare() {
+        if (error != null) return false;
+        if (output == null) {
+            try {
+                output = new OutputFile(file, append, listener);
+                buffer = BufferPool.acquire();
+            } catch (IOException | RuntimeException e) {
+                error = "Не удалось записать в " + file + ".";
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Записывает содержимое буфера в файл.
+     *
+     * @throws IOException при ошибке записи
+     */
+    private void flush() throws IOException {
+        output.write(buffer.flip());
+        buffer.clear();
+    }
+
+    /**
+     * Закрывает выходной файл, возвращает буфер в пул и выводит в консоль ошибку,
+     * если она возникла во время записи.
+     */
+    @Override
+    public void close() {
+        if (output != null) {
+            try {
+                if (error == null) flush();
+            } catch (IOException e) {
+                error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+            }
+            try {
+                output.close();
+            } catch (IOException e) {
+                console.printError("Ошибка закрытия файла.");
+            }
+            BufferPool.release(buffer);
+            output = null;
+            buffer = null;
+        }
+        if (error != null) {
+            console.printError(error);
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package Managers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Поток чтения диапазона байтов файла.
+ * Использует позиционное чтение, поэтому несколько потоков могут одновременно читать
+ * разные диапазоны одного открытого файла.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class ChannelRangeInputStream extends InputStream {
+    //Размер буфера чтения
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //Канал открытого файла
+    private final FileChannel channel;
+    //Позиция следующего непрочитанного байта
+    private long position;
+    //Позиция, следующая за последним байтом диапазона
+    private final long end;
+    //Буфер чтения
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Создает поток чтения диапазона байтов файла.
+     *
+     * @param channel канал открытого файла
+     * @param start   позиция первого байта диапазона
+     * @param end     позиция, следующая за последним байтом диапазона
+     */
+    ChannelRangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        buffer.limit(0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) return -1;
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (!fill()) return -1;
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    /**
+     * Заполняет буфер, если он прочитан полностью.
+     *
+     * @return {@code false}, если диапазон прочитан до конца
+     * @throws IOException при ошибке чтения
+     */
+    private boolean fill() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (position >= end) return false;
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) return false;
+            position += read;
+            buffer.flip();
+        }
+        return true;
+    }
+}
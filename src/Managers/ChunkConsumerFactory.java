@@ -0,0 +1,21 @@
+package Managers;
+
+import java.util.function.Consumer;
+
+/**
+ * Интерфейс {@code ChunkConsumerFactory} должен быть реализован классом, создающим обработчики строк
+ * для частей входных файлов при параллельном чтении.
+ */
+@FunctionalInterface
+public interface ChunkConsumerFactory {
+    /**
+     * Создает обработчик строк части файла.
+     * Вызывается в вызывающем потоке по порядку: сначала для всех частей первого файла, затем второго и так далее.
+     * Сам обработчик вызывается в потоке, читающем эту часть.
+     *
+     * @param file  порядковый номер открытого файла
+     * @param chunk порядковый номер части внутри файла
+     * @return обработчик строк части файла
+     */
+    Consumer<String> create(int file, int chunk);
+}
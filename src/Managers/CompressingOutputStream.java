@@ -0,0 +1,198 @@
+package Managers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Поток записи в файл gzip, сжимающий данные в отдельном потоке выполнения.
+ * Записываемые байты накапливаются частями по {@value #CHUNK_SIZE} байт, и заполненные части передаются
+ * через ограниченную очередь потоку сжатия, поэтому записывающий поток не ждет сжатия, пока очередь не заполнится.
+ * <p>
+ * При дописывании в существующий файл добавляется новый член gzip; такие файлы читаются
+ * {@link java.util.zip.GZIPInputStream} и утилитой gzip как один поток данных.
+ * Ошибка сжатия или записи выбрасывается при следующей записи или при закрытии.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class CompressingOutputStream extends OutputStream {
+    //Размер части данных, передаваемой потоку сжатия
+    private static final int CHUNK_SIZE = 64 * 1024;
+    //Наибольшее количество частей, ожидающих сжатия
+    private static final int QUEUE_SIZE = 4;
+    //Отметки сброса сжатых данных в файл и конца данных
+    private static final Chunk FLUSH = new Chunk(new byte[0], 0);
+    private static final Chunk END = new Chunk(new byte[0], 0);
+
+    //Части данных, ожидающие сжатия
+    private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    //Сжатые части, которые можно использовать повторно
+    private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(QUEUE_SIZE + 1);
+    //Поток сжатия
+    private final Thread compressor;
+    //Первая ошибка сжатия или записи
+    private volatile IOException error;
+
+    //Заполняемая часть данных
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    //Количество байтов в заполняемой части
+    private int size = 0;
+    //Флаг закрытия потока
+    private boolean closed = false;
+
+    /**
+     * Открывает файл и запускает поток сжатия.
+     *
+     * @param file     путь к файлу
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     * @throws IOException при невозможности открыть файл
+     */
+    CompressingOutputStream(String file, boolean append, OutputFile.AppendListener listener) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new OutputFile(file, append, listener), CHUNK_SIZE, true);
+        compressor = new Thread(() -> compress(gzip), "gzip " + file);
+        compressor.setDaemon(true);
+        compressor.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (size == CHUNK_SIZE) send();
+        chunk[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (size == CHUNK_SIZE) send();
+            int count = Math.min(length, CHUNK_SIZE - size);
+            System.arraycopy(bytes, offset, chunk, size, count);
+            size += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Передает накопленные данные потоку сжатия и просит его сбросить сжатые данные в файл,
+     * не дожидаясь этого.
+     *
+     * @throws IOException если при сжатии или записи возникла ошибка
+     */
+    @Override
+    public void flush() throws IOException {
+        if (size > 0) send();
+        put(FLUSH);
+    }
+
+    /**
+     * Передает оставшиеся данные потоку сжатия и ждет, пока он допишет и закроет файл.
+     *
+     * @throws IOException если при сжатии или записи возникла ошибка
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (size > 0) send();
+        } finally {
+            // Отметка конца ставится и после ошибки, чтобы поток сжатия закрыл файл и завершился
+            try {
+                chunks.put(END);
+                compressor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Передает заполняемую часть потоку сжатия и начинает новую.
+     *
+     * @throws IOException если при сжатии или записи возникла ошибка
+     */
+    private void send() throws IOException {
+        put(new Chunk(chunk, size));
+        byte[] next = free.poll();
+        chunk = next != null ? next : new byte[CHUNK_SIZE];
+        size = 0;
+    }
+
+    /**
+     * Ставит часть данных или отметку в очередь потока сжатия.
+     *
+     * @param chunk часть данных или отметка
+     * @throws IOException если при сжатии или записи возникла ошибка
+     */
+    private void put(Chunk chunk) throws IOException {
+        if (error != null) throw error;
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Сжимает части данных из очереди, пока не встретится отметка конца данных.
+     * После ошибки части продолжают забираться из очереди, чтобы записывающий поток не заблокировался.
+     *
+     * @param gzip поток сжатия в файл
+     */
+    private void compress(GZIPOutputStream gzip) {
+        while (true) {
+            Chunk chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (chunk == END) break;
+            if (error != null) continue;
+            try {
+                if (chunk == FLUSH) {
+                    gzip.flush();
+                } else {
+                    gzip.write(chunk.data, 0, chunk.length);
+                    free.offer(chunk.data);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        try {
+            gzip.close();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+
+    /**
+     * Часть данных, ожидающая сжатия.
+     */
+    private static class Chunk {
+        //Массив с данными
+        private final byte[] data;
+        //Количество байтов данных в начале массива
+        private final int length;
+
+        /**
+         * Создает часть данных.
+         *
+         * @param data   массив с данными
+         * @param length количество байтов данных
+         */
+        Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package Managers;
+
+/**
+ * Интерфейс {@code DataWriter} должен быть реализован классом, записывающим строки и числа в выходной файл.
+ * Ошибки записи не прерывают обработку, а выводятся в консоль при закрытии писателя.
+ */
+public interface DataWriter extends AutoCloseable {
+    /**
+     * Записывает строку.
+     *
+     * @param line записываемая строка
+     */
+    void write(String line);
+
+    /**
+     * Записывает целое число.
+     *
+     * @param value записываемое число
+     */
+    void write(long value);
+
+    /**
+     * Записывает вещественное число.
+     *
+     * @param value записываемое число
+     */
+    void write(double value);
+
+    /**
+     * Передает записанные данные в файл, не закрывая его, если формат файла это позволяет.
+     */
+    void flush();
+
+    /**
+     * Закрывает выходной файл и выводит в консоль ошибку, если она возникла во время записи.
+     */
+    @Override
+    void close();
+}
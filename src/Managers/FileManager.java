@@ -1,12 +1,35 @@
 package Managers;
 
+import Buffers.DoubleColumn;
+import Buffers.LineArena;
+import Buffers.LongColumn;
+import Exceptions.FilterException;
 import Utility.Console;
+import Utility.DataType;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Предназначен для взаимодействия с файлами.
@@ -17,8 +40,26 @@ import java.util.List;
  */
 public class FileManager {
 
+    //Наименьший размер части, на которые делятся большие файлы при параллельном чтении
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+    //Расширение сжатых файлов
+    private static final String GZIP_EXTENSION = ".gz";
+    //Размер буфера распаковки
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    //Расширение двоичных файлов чисел
+    private static final String BINARY_EXTENSION = ".bin";
+    //Сообщения о невозможности продолжить сортировку
+    private static final String NO_INPUT = "нет доступных файлов для чтения, дальнейшее выполнение невозможно.";
+    private static final String EMPTY_INPUT = "доступные для чтения файлы пусты, дальнейшее выполнение невозможно.";
+
     //Консоль для вывода сообщений и чтения пользовательского ввода
     private Console console;
+    //Сборщик показателей выполнения
+    private MetricsManager metrics = MetricsManager.disabled();
+    //Параметры упорядочивания выходных файлов или null, если данные записываются в порядке чтения
+    private OutputSorting sorting;
+    //Хранилища накопленной статистики по абсолютным путям выходных файлов
+    private final Map<String, StatisticsSidecar> sidecars = new ConcurrentHashMap<>();
 
     /**
      * Создает менеджер, управляющий файлами.
@@ -29,6 +70,31 @@ public class FileManager {
         this.console = console;
     }
 
+    /**
+     * Задает сборщик показателей выполнения для чтения и записи, выполняемых менеджером.
+     *
+     * @param metrics сборщик показателей или {@code null}, чтобы не собирать показатели
+     */
+    public void setMetrics(MetricsManager metrics) {
+        this.metrics = metrics == null ? MetricsManager.disabled() : metrics;
+    }
+
+    /**
+     * @return сборщик показателей выполнения
+     */
+    public MetricsManager getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Задает упорядочивание данных в выходных файлах, открываемых менеджером.
+     *
+     * @param sorting параметры упорядочивания или {@code null}, чтобы записывать данные в порядке чтения
+     */
+    public void setSorting(OutputSorting sorting) {
+        this.sorting = sorting;
+    }
+
     /**
      * Считывает содержимое переданных файлов.
      * Если файл не найден или нет прав доступа к файлу, выводит сообщение об ошибке.
@@ -37,62 +103,650 @@ public class FileManager {
      * @return список строк, считанных из файлов
      */
     public List<String> readFiles(List<String> files) {
-        List<BufferedReader> readers = new ArrayList<>();
         List<String> data = new ArrayList<>();
-        int errors = 0;
+        readFiles(files, data::add);
+        return data;
+    }
+
+    /**
+     * Построчно считывает содержимое переданных файлов, передавая каждую строку обработчику.
+     * Строки читаются поочередно из каждого файла, в том же порядке, что и в {@link #readFiles(List)},
+     * но не накапливаются в памяти.
+     * Если файл не найден или нет прав доступа к файлу, выводит сообщение об ошибке.
+     *
+     * @param files    список строк названий файлов
+     * @param consumer обработчик считанных строк
+     * @return количество считанных строк
+     * @throws FilterException если не удалось открыть ни одного файла или все доступные файлы пусты
+     */
+    public long readFiles(List<String> files, Consumer<String> consumer) {
+        List<Source> sources = new ArrayList<>();
+        for (String fileName : files) {
+            sources.add(Source.of(fileName));
+        }
+        return readSources(sources, consumer);
+    }
+
+    /**
+     * Построчно считывает содержимое переданных источников, передавая каждую строку обработчику.
+     * Строки читаются поочередно из каждого источника, как в {@link #readFiles(List, Consumer)}.
+     * Если источник не удалось открыть, выводит сообщение об ошибке и продолжает чтение остальных.
+     *
+     * @param sources  источники строк
+     * @param consumer обработчик считанных строк
+     * @return количество считанных строк
+     * @throws FilterException если не удалось открыть ни одного источника или все доступные источники пусты
+     */
+    public long readSources(List<Source> sources, Consumer<String> consumer) {
+        List<BufferedReader> readers = new ArrayList<>();
+        List<Source> opened = new ArrayList<>();
+        long start = System.nanoTime();
+        FileCounters counters = null;
+        long lines = 0;
         try {
-            for (String fileName : files) {
-                try {
-                    if (new File(fileName).exists()) {
-                        BufferedReader reader = new BufferedReader(new FileReader(fileName));
-                        readers.add(reader);
+            int errors = openSources(sources, readers, opened);
+            counters = new FileCounters(opened, start);
+
+            boolean hasMoreLines;
+            do {
+                hasMoreLines = false;
+                for (int i = 0; i < readers.size(); i++) {
+                    String line = readers.get(i).readLine();
+                    if (line != null) {
+                        consumer.accept(line);
+                        counters.lines[i]++;
+                        lines++;
+                        hasMoreLines = true;
                     } else {
-                        console.printError("файл " + fileName + " не найден.");
-                        errors += 1;
+                        counters.finish(i);
                     }
+                }
+            } while (hasMoreLines);
+            if (errors < sources.size() & lines == 0) {
+                throw new FilterException(EMPTY_INPUT);
+            }
+        } catch (IOException e) {
+            console.printError("возникла ошибка чтения.");
 
+        } finally {
+            if (counters != null) counters.report();
+            metrics.addStage(MetricsManager.Stage.READ, start);
+            // Закрываем все открытые файлы
+            for (BufferedReader reader : readers) {
+                try {
+                    if (reader != null) {
+                        reader.close();
+                    }
                 } catch (IOException e) {
-                    errors += 1;
-                    console.printError("недостаточно прав для чтения файла " + fileName + ".");
+                    e.printStackTrace();
                 }
             }
-            if (errors == files.size()) {
-                console.printError("нет доступных файлов для чтения, дальнейшее выполнение невозможно.");
-                System.exit(1);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Построчно считывает содержимое одного файла, передавая каждую строку обработчику.
+     * В отличие от {@link #readFiles(List, Consumer)} не выводит сообщений в консоль, пустой файл
+     * не считается ошибкой, а недоступный файл - ошибка чтения, о которой сообщается исключением.
+     *
+     * @param fileName название файла
+     * @param consumer обработчик считанных строк
+     * @return количество считанных строк
+     * @throws IOException если файл не найден, недоступен или при ошибке чтения
+     */
+    public long readFile(String fileName, Consumer<String> consumer) throws IOException {
+        long start = System.nanoTime();
+        long lines = 0;
+        try (BufferedReader reader = openInput(fileName)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+                lines++;
+            }
+            return lines;
+        } finally {
+            metrics.addFile(fileName, lines, new File(fileName).length(), System.nanoTime() - start);
+            metrics.addStage(MetricsManager.Stage.READ, start);
+        }
+    }
+
+    /**
+     * Построчно считывает содержимое одного файла, начиная с позиции в байтах, и передает обработчику
+     * каждую строку вместе с позицией сразу после нее, чтобы чтение можно было продолжить с этого места.
+     * Строки делятся так же, как в {@link #readFile(String, Consumer)}: по {@code \n}, {@code \r} и {@code \r\n}.
+     * Позиция сжатого файла отсчитывается в распакованных байтах. Если содержимое файла короче позиции,
+     * файл заменен более коротким и читается с начала. Если прошлое чтение закончилось незавершенной
+     * последней строкой, дописанный затем перевод строки завершает ее и не дает пустой строки.
+     *
+     * @param fileName название файла
+     * @param offset   позиция в байтах, с которой начинается чтение
+     * @param consumer обработчик строки и позиции после нее
+     * @return позиция после последней считанной строки
+     * @throws IOException если файл не найден, недоступен или при ошибке чтения
+     */
+    public long readFile(String fileName, long offset, ObjLongConsumer<String> consumer) throws IOException {
+        long start = System.nanoTime();
+        long lines = 0;
+        long from = offset;
+        long position = offset;
+        InputStream in = openInputStream(fileName);
+        try {
+            // Байт перед позицией: по нему видно, завершена ли последняя переданная строка
+            int previous = '\n';
+            if (offset > 0) {
+                try {
+                    in.skipNBytes(offset - 1);
+                    previous = in.read();
+                } catch (EOFException e) {
+                    previous = -1;
+                }
+                if (previous == -1) {
+                    in.close();
+                    in = openInputStream(fileName);
+                    from = position = 0;
+                    previous = '\n';
+                }
+            }
+            // Пропускаются '\r' и '\n' после незавершенной строки и '\n' после '\r': они завершают переданную строку
+            boolean skipCarriageReturn = previous != '\n' && previous != '\r';
+            boolean skipLineFeed = previous != '\n';
+            byte[] buffer = new byte[GZIP_BUFFER_SIZE];
+            byte[] line = new byte[256];
+            int length = 0;
+            // Перед текущим байтом стоит '\r', и строка будет передана, когда станет ясно, следует ли за ним '\n'
+            boolean carriageReturn = false;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    position++;
+                    if (skipLineFeed || skipCarriageReturn) {
+                        boolean skip = b == '\n' && skipLineFeed || b == '\r' && skipCarriageReturn;
+                        skipLineFeed = b == '\r' && skipCarriageReturn;
+                        skipCarriageReturn = false;
+                        if (skip) continue;
+                    }
+                    if (carriageReturn) {
+                        carriageReturn = false;
+                        consumer.accept(new String(line, 0, length, Charset.defaultCharset()),
+                                b == '\n' ? position : position - 1);
+                        length = 0;
+                        lines++;
+                        if (b == '\n') continue;
+                    }
+                    if (b == '\r') {
+                        carriageReturn = true;
+                    } else if (b == '\n') {
+                        consumer.accept(new String(line, 0, length, Charset.defaultCharset()), position);
+                        length = 0;
+                        lines++;
+                    } else {
+                        if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                        line[length++] = b;
+                    }
+                }
+            }
+            if (carriageReturn || length > 0) {
+                consumer.accept(new String(line, 0, length, Charset.defaultCharset()), position);
+                lines++;
+            }
+            return position;
+        } finally {
+            in.close();
+            metrics.addFile(fileName, lines, position - from, System.nanoTime() - start);
+            metrics.addStage(MetricsManager.Stage.READ, start);
+        }
+    }
+
+    /**
+     * Проверяет, сжат ли файл gzip, по расширению {@value #GZIP_EXTENSION}.
+     *
+     * @param fileName название файла
+     * @return {@code true}, если файл сжат
+     */
+    public static boolean isCompressed(String fileName) {
+        return fileName.endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * Открывает файл для построчного чтения в кодировке по умолчанию.
+     * Файл с расширением {@value #GZIP_EXTENSION} распаковывается по мере чтения.
+     *
+     * @param fileName название файла
+     * @return открытый файл
+     * @throws IOException при невозможности открыть файл или некорректном заголовке gzip
+     */
+    static BufferedReader openInput(String fileName) throws IOException {
+        if (!isCompressed(fileName)) {
+            return new BufferedReader(new FileReader(fileName));
+        }
+        return new BufferedReader(new InputStreamReader(openInputStream(fileName), Charset.defaultCharset()));
+    }
+
+    /**
+     * Открывает файл для чтения байтов.
+     * Файл с расширением {@value #GZIP_EXTENSION} распаковывается по мере чтения.
+     *
+     * @param fileName название файла
+     * @return открытый файл
+     * @throws IOException при невозможности открыть файл или некорректном заголовке gzip
+     */
+    static InputStream openInputStream(String fileName) throws IOException {
+        InputStream in = new FileInputStream(fileName);
+        if (!isCompressed(fileName)) return in;
+        try {
+            return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Проверяет, является ли выходной файл двоичным файлом чисел, по расширению {@value #BINARY_EXTENSION},
+     * возможно со сжатием.
+     *
+     * @param fileName название файла
+     * @return {@code true}, если файл двоичный
+     */
+    public static boolean isBinary(String fileName) {
+        String name = isCompressed(fileName)
+                ? fileName.substring(0, fileName.length() - GZIP_EXTENSION.length()) : fileName;
+        return name.endsWith(BINARY_EXTENSION);
+    }
+
+    /**
+     * Открывает файл для записи в кодировке по умолчанию.
+     * Файл с расширением {@value #GZIP_EXTENSION} сжимается в отдельном потоке выполнения.
+     * Запись безопасна при одновременной записи в тот же файл, см. {@link OutputFile}.
+     *
+     * @param file     путь к файлу
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     * @return открытый файл
+     * @throws IOException при невозможности открыть файл
+     */
+    static Writer openOutput(String file, boolean append, OutputFile.AppendListener listener) throws IOException {
+        return new OutputStreamWriter(openOutputStream(file, append, listener), Charset.defaultCharset());
+    }
+
+    /**
+     * Открывает файл для записи байтов.
+     * Файл с расширением {@value #GZIP_EXTENSION} сжимается в отдельном потоке выполнения.
+     * Запись безопасна при одновременной записи в тот же файл, см. {@link OutputFile}.
+     *
+     * @param file     путь к файлу
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     * @return открытый файл
+     * @throws IOException при невозможности открыть файл
+     */
+    static OutputStream openOutputStream(String file, boolean append, OutputFile.AppendListener listener)
+            throws IOException {
+        return isCompressed(file)
+                ? new CompressingOutputStream(file, append, listener)
+                : new OutputFile(file, append, listener);
+    }
+
+    /**
+     * Создает читатель файла, который продолжает дописываться во время чтения.
+     * Строки декодируются в кодировке по умолчанию, как и при обычном чтении. Сжатые файлы не поддерживаются:
+     * дописываемый поток gzip нельзя распаковывать по частям, не дожидаясь его завершения.
+     *
+     * @param fileName название файла
+     * @return читатель файла
+     * @throws FilterException если файл сжат gzip
+     */
+    public FollowedFile follow(String fileName) {
+        if (isCompressed(fileName)) {
+            throw new FilterException("файл " + fileName + " сжат, а --follow читает только несжатые файлы.");
+        }
+        return new FollowedFile(fileName, Charset.defaultCharset(), metrics);
+    }
+
+    /**
+     * Построчно считывает содержимое переданных файлов, отображая их в память.
+     * Строки передаются обработчику диапазонами байтов, без декодирования в {@link String},
+     * поочередно из каждого файла, в том же порядке, что и в {@link #readFiles(List)}.
+     * Если файл не найден или нет прав доступа к файлу, выводит сообщение об ошибке.
+     *
+     * @param files    список строк названий файлов
+     * @param consumer обработчик считанных строк
+     * @return количество считанных строк
+     */
+    public long readFilesMapped(List<String> files, ByteLineConsumer consumer) {
+        List<MappedLineReader> readers = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        long start = System.nanoTime();
+        FileCounters counters = null;
+        long lines = 0;
+        try {
+            int errors = openFiles(files, readers, names, MappedLineReader::new);
+            List<Source> sources = new ArrayList<>();
+            for (String name : names) {
+                sources.add(Source.of(name));
             }
+            counters = new FileCounters(sources, start);
 
             boolean hasMoreLines;
             do {
                 hasMoreLines = false;
-                for (BufferedReader reader : readers) {
-                    String line = reader.readLine();
-                    if (line != null) {
-                        data.add(line);
+                for (int i = 0; i < readers.size(); i++) {
+                    if (readers.get(i).readLine(consumer)) {
+                        counters.lines[i]++;
+                        lines++;
                         hasMoreLines = true;
+                    } else {
+                        counters.finish(i);
                     }
                 }
             } while (hasMoreLines);
-            if (errors < files.size() & data.size() == 0) {
-                console.printError("доступные для чтения файлы пусты, дальнейшее выполнение невозможно.");
-                System.exit(1);
+            if (errors < files.size() & lines == 0) {
+                throw new FilterException(EMPTY_INPUT);
             }
         } catch (IOException e) {
             console.printError("возникла ошибка чтения.");
 
         } finally {
+            if (counters != null) counters.report();
+            metrics.addStage(MetricsManager.Stage.READ, start);
             // Закрываем все открытые файлы
-            for (BufferedReader reader : readers) {
+            for (MappedLineReader reader : readers) {
                 try {
-                    if (reader != null) {
-                        reader.close();
-                    }
+                    reader.close();
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
         }
 
-        return data;
+        return lines;
+    }
+
+    /**
+     * Считывает содержимое переданных файлов параллельно.
+     * Файлы больше {@value #CHUNK_SIZE} байт делятся на части по границам строк, и каждая часть, как и каждый
+     * небольшой файл, читается в отдельном потоке и передается своему обработчику. Порядок строк сохраняется
+     * только в пределах одной части, поэтому объединять результаты обработчиков должен вызывающий код.
+     * Если файл не найден или нет прав доступа к файлу, выводит сообщение об ошибке.
+     *
+     * @param files     список строк названий файлов
+     * @param threads   наибольшее количество одновременно читаемых частей
+     * @param consumers фабрика обработчиков строк частей файлов
+     * @return количество считанных строк
+     */
+    public long readFiles(List<String> files, int threads, ChunkConsumerFactory consumers) {
+        List<FileChannel> channels = new ArrayList<>();
+        ExecutorService executor = null;
+        long start = System.nanoTime();
+        long lines = 0;
+        try {
+            List<String> opened = new ArrayList<>();
+            int errors = openFiles(files, channels, opened, this::openChannel);
+            // Делить файл по байту '\n' можно только в кодировках, где он не встречается внутри символов
+            Charset charset = Charset.defaultCharset();
+            boolean splittable = charset.equals(StandardCharsets.UTF_8) || charset.newEncoder().maxBytesPerChar() == 1;
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < channels.size(); i++) {
+                FileChannel channel = channels.get(i);
+                // Сжатый файл можно распаковать только целиком, с начала
+                boolean compressed = isCompressed(opened.get(i));
+                List<Long> bounds = splittable && !compressed ? splitLines(channel) : List.of(0L, channel.size());
+                for (int j = 0; j + 1 < bounds.size(); j++) {
+                    Consumer<String> consumer = consumers.create(i, j);
+                    InputStream channelRange = new ChannelRangeInputStream(channel, bounds.get(j), bounds.get(j + 1));
+                    InputStream range = compressed ? new GZIPInputStream(channelRange, GZIP_BUFFER_SIZE) : channelRange;
+                    String fileName = opened.get(i);
+                    long bytes = bounds.get(j + 1) - bounds.get(j);
+                    tasks.add(() -> {
+                        long mark = metrics.allocationMark();
+                        long chunkStart = System.nanoTime();
+                        long chunkLines = readLines(new BufferedReader(new InputStreamReader(range, charset)), consumer);
+                        metrics.addFile(fileName, chunkLines, bytes, System.nanoTime() - chunkStart);
+                        metrics.addAllocation(mark);
+                        return chunkLines;
+                    });
+                }
+            }
+            executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+            for (Future<Long> future : executor.invokeAll(tasks)) {
+                lines += future.get();
+            }
+            if (errors < files.size() & lines == 0) {
+                throw new FilterException(EMPTY_INPUT);
+            }
+        } catch (IOException e) {
+            console.printError("возникла ошибка чтения.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            console.printError("возникла ошибка чтения.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            metrics.addStage(MetricsManager.Stage.READ, start);
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            // Закрываем все открытые файлы
+            for (FileChannel channel : channels) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Делит файл на части размером не меньше {@value #CHUNK_SIZE} байт так, чтобы каждая часть
+     * начиналась с начала строки.
+     *
+     * @param channel канал открытого файла
+     * @return позиции начала частей и позиция конца файла
+     * @throws IOException при ошибке чтения
+     */
+    private List<Long> splitLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long position = CHUNK_SIZE;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, size, buffer);
+            if (boundary >= size) break;
+            bounds.add(boundary);
+            position = boundary + CHUNK_SIZE;
+        }
+        bounds.add(size);
+        return bounds;
+    }
+
+    /**
+     * Находит начало первой строки, начинающейся не раньше заданной позиции.
+     *
+     * @param channel  канал открытого файла
+     * @param position позиция, с которой начинается поиск
+     * @param size     размер файла
+     * @param buffer   буфер чтения
+     * @return позиция начала строки или размер файла, если такой строки нет
+     * @throws IOException при ошибке чтения
+     */
+    private long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        // Строка начинается в позиции, если предыдущий байт - перевод строки
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return offset + i + 1;
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Открывает файл для позиционного чтения.
+     *
+     * @param fileName название файла
+     * @return канал открытого файла
+     * @throws IOException при невозможности открыть файл для чтения
+     */
+    private FileChannel openChannel(String fileName) throws IOException {
+        if (new File(fileName).isDirectory()) {
+            throw new AccessDeniedException(fileName);
+        }
+        return FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+    }
+
+    /**
+     * Открывает переданные файлы для чтения.
+     * Если файл не найден или нет прав доступа к файлу, выводит сообщение об ошибке.
+     *
+     * @param files  список строк названий файлов
+     * @param opened список, в который добавляются открытые файлы
+     * @param names  список, в который добавляются названия открытых файлов
+     * @param opener способ открытия файла
+     * @param <T>    тип открытого файла
+     * @return количество файлов, которые не удалось открыть
+     * @throws FilterException если не удалось открыть ни одного файла
+     */
+    private <T> int openFiles(List<String> files, List<T> opened, List<String> names, Opener<T> opener) {
+        int errors = 0;
+        for (String fileName : files) {
+            try {
+                if (new File(fileName).exists()) {
+                    opened.add(opener.open(fileName));
+                    names.add(fileName);
+                } else {
+                    console.printError("файл " + fileName + " не найден.");
+                    errors += 1;
+                }
+
+            } catch (IOException e) {
+                errors += 1;
+                console.printError("недостаточно прав для чтения файла " + fileName + ".");
+            }
+        }
+        if (errors == files.size()) {
+            throw new FilterException(NO_INPUT);
+        }
+        return errors;
+    }
+
+    /**
+     * Открывает переданные источники для чтения.
+     * Если файл не найден или нет прав доступа к нему, выводит сообщение об ошибке.
+     *
+     * @param sources источники строк
+     * @param readers список, в который добавляются читатели открытых источников
+     * @param opened  список, в который добавляются открытые источники
+     * @return количество источников, которые не удалось открыть
+     * @throws FilterException если не удалось открыть ни одного источника
+     */
+    private int openSources(List<Source> sources, List<BufferedReader> readers, List<Source> opened) {
+        int errors = 0;
+        for (Source source : sources) {
+            try {
+                readers.add(source.open());
+                opened.add(source);
+            } catch (NoSuchFileException e) {
+                console.printError("файл " + source.getName() + " не найден.");
+                errors += 1;
+            } catch (IOException e) {
+                errors += 1;
+                console.printError("недостаточно прав для чтения файла " + source.getName() + ".");
+            }
+        }
+        if (errors == sources.size()) {
+            throw new FilterException(NO_INPUT);
+        }
+        return errors;
+    }
+
+    /**
+     * Счетчики строк и времени чтения файлов, читаемых поочередно.
+     * Временем чтения файла считается время от начала чтения до конца этого файла.
+     */
+    private class FileCounters {
+        //Читаемые файлы
+        private final List<Source> sources;
+        //Время начала чтения
+        private final long start;
+        //Количество считанных строк каждого файла
+        private final long[] lines;
+        //Время чтения каждого файла; 0, пока файл не прочитан
+        private final long[] nanos;
+
+        /**
+         * Создает счетчики.
+         *
+         * @param sources читаемые файлы
+         * @param start   время начала чтения
+         */
+        FileCounters(List<Source> sources, long start) {
+            this.sources = sources;
+            this.start = start;
+            this.lines = new long[sources.size()];
+            this.nanos = new long[sources.size()];
+        }
+
+        /**
+         * Отмечает конец файла.
+         *
+         * @param file номер файла
+         */
+        void finish(int file) {
+            if (nanos[file] == 0) nanos[file] = System.nanoTime() - start;
+        }
+
+        /**
+         * Передает показатели файлов в {@link MetricsManager}.
+         */
+        void report() {
+            for (int i = 0; i < sources.size(); i++) {
+                finish(i);
+                metrics.addFile(sources.get(i).getName(), lines[i], sources.get(i).getSize(), nanos[i]);
+            }
+        }
+    }
+
+    /**
+     * Способ открытия файла для чтения.
+     *
+     * @param <T> тип открытого файла
+     */
+    @FunctionalInterface
+    private interface Opener<T> {
+        T open(String fileName) throws IOException;
+    }
+
+    /**
+     * Считывает все строки файла, передавая их обработчику.
+     * При ошибке чтения выводит сообщение об ошибке и прекращает чтение файла.
+     *
+     * @param reader   открытый файл
+     * @param consumer обработчик считанных строк
+     * @return количество считанных строк
+     */
+    private long readLines(BufferedReader reader, Consumer<String> consumer) {
+        long lines = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+                lines++;
+            }
+        } catch (IOException e) {
+            console.printError("возникла ошибка чтения.");
+        }
+        return lines;
     }
 
     /**
@@ -122,13 +776,19 @@ public class FileManager {
      * @param append   флаг дописывания в конец файла
      */
     public void write(List<?> data, String filepath, String prefix, String fileName, boolean append) {
-        if (data.size() > 0) {
-            FileWriter writer = null;
-            String file = !filepath.isEmpty() ? filepath + "/" : "";
-            file += prefix + fileName;
+        long start = System.nanoTime();
+        if (data.size() > 0 && sorting != null) {
+            try (DataWriter writer = openWriter(filepath, prefix, fileName, append)) {
+                for (Object e : data) {
+                    writer.write(e.toString());
+                }
+            }
+        } else if (data.size() > 0) {
+            Writer writer = null;
+            String file = resolvePath(filepath, prefix, fileName);
             String info = collectionToString(data);
             try {
-                writer = new FileWriter(file, append);
+                writer = openOutput(file, append, listener(file));
                 try {
                     writer.write(info);
                     writer.flush();
@@ -147,5 +807,218 @@ public class FileManager {
                 }
             }
         }
+        metrics.addStage(MetricsManager.Stage.WRITE, start);
+    }
+
+    /**
+     * Записывает строки хранилища в файл блоками хранилища, не декодируя строки.
+     * Строки хранятся в кодировке по умолчанию, поэтому результат совпадает с записью списка строк.
+     * Если задано упорядочивание, строки записываются через упорядочивающий писатель.
+     * Если файл не найден или нет прав доступа, выводит сообщение об ошибке.
+     *
+     * @param data     хранилище строк
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     */
+    public void write(LineArena data, String filepath, String prefix, String fileName, boolean append) {
+        long start = System.nanoTime();
+        if (data.size() > 0 && sorting != null) {
+            try (DataWriter writer = openWriter(filepath, prefix, fileName, append)) {
+                for (int i = 0; i < data.size(); i++) {
+                    writer.write(data.get(i));
+                }
+            }
+        } else if (data.size() > 0) {
+            OutputStream out = null;
+            String file = resolvePath(filepath, prefix, fileName);
+            try {
+                out = openOutputStream(file, append, listener(file));
+                try {
+                    data.writeTo(out);
+                    out.flush();
+                } catch (IOException e) {
+                    console.printError("Неожиданная ошибка сохранения в файл " + fileName + ".");
+                }
+            } catch (IOException e) {
+                console.printError("Не удалось записать в " + file + ".");
+            } finally {
+                if (out != null) {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        console.printError("Ошибка закрытия файла.");
+                    }
+                }
+            }
+        }
+        metrics.addStage(MetricsManager.Stage.WRITE, start);
+    }
+
+    /**
+     * Создает построчный писатель в выходной файл.
+     * Файл открывается только при записи первой строки, поэтому при отсутствии данных он не создается
+     * и не перезаписывается. Если задано упорядочивание, строки записываются при закрытии писателя.
+     *
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     * @return писатель в выходной файл
+     */
+    public DataWriter openWriter(String filepath, String prefix, String fileName, boolean append) {
+        String file = resolvePath(filepath, prefix, fileName);
+        return sorted(new LineWriter(console, file, fileName, append, listener(file)), fileName, DataType.STRING);
+    }
+
+    /**
+     * Создает писатель чисел в выходной файл: двоичный, если название файла оканчивается на
+     * {@value #BINARY_EXTENSION} (возможно, с {@value #GZIP_EXTENSION}), иначе построчный.
+     * Если задано упорядочивание, числа записываются при закрытии писателя.
+     *
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     * @param type     тип чисел: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     * @return писатель в выходной файл
+     */
+    public DataWriter openColumnWriter(String filepath, String prefix, String fileName, boolean append, DataType type) {
+        String file = resolvePath(filepath, prefix, fileName);
+        DataWriter writer = isBinary(fileName)
+                ? new BinaryColumnWriter(console, file, fileName, append, listener(file), type)
+                : new LineWriter(console, file, fileName, append, listener(file));
+        return sorted(writer, fileName, type);
+    }
+
+    /**
+     * Оборачивает писатель в упорядочивающий, если задано упорядочивание.
+     *
+     * @param writer   писатель в выходной файл
+     * @param fileName название выходного файла
+     * @param type     тип записываемых данных
+     * @return писатель в выходной файл
+     */
+    private DataWriter sorted(DataWriter writer, String fileName, DataType type) {
+        return sorting == null ? writer : new SortingWriter(console, fileName, writer, type, sorting);
+    }
+
+    /**
+     * Открывает писатель, записывающий в выходной файл строки диапазонами байтов.
+     * Сам файл создается только при записи первой строки.
+     *
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     * @return писатель в выходной файл
+     */
+    public ByteLineWriter openByteWriter(String filepath, String prefix, String fileName, boolean append) {
+        String file = resolvePath(filepath, prefix, fileName);
+        return new ByteLineWriter(console, file, fileName, append, listener(file));
+    }
+
+    /**
+     * Открывает хранилище накопленной статистики выходного файла. Писатели, открытые после этого
+     * в тот же файл, сообщают хранилищу о дописанных порциях, см. {@link StatisticsSidecar}.
+     *
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     * @return хранилище статистики
+     */
+    public StatisticsSidecar openSidecar(String filepath, String prefix, String fileName, boolean append) {
+        StatisticsSidecar sidecar = new StatisticsSidecar(console, resolvePath(filepath, prefix, fileName), append);
+        addSidecar(sidecar);
+        return sidecar;
+    }
+
+    /**
+     * Связывает с выходным файлом хранилище его статистики, открытое другим менеджером:
+     * писатели, открытые после этого в тот же файл, сообщают хранилищу о дописанных порциях.
+     *
+     * @param sidecar хранилище статистики
+     */
+    public void addSidecar(StatisticsSidecar sidecar) {
+        sidecars.put(sidecarKey(sidecar.getOutput()), sidecar);
+    }
+
+    /**
+     * Находит получателя сведений о дописанных в выходной файл порциях.
+     *
+     * @param file путь к выходному файлу
+     * @return хранилище статистики файла или {@code null}, если оно не открыто
+     */
+    private OutputFile.AppendListener listener(String file) {
+        StatisticsSidecar sidecar = sidecars.get(sidecarKey(Path.of(file)));
+        return sidecar == null ? null : sidecar::appended;
+    }
+
+    /**
+     * @param output путь к выходному файлу
+     * @return ключ хранилища статистики файла, не зависящий от записи пути
+     */
+    private static String sidecarKey(Path output) {
+        return output.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Составляет путь к выходному файлу.
+     *
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @return путь к выходному файлу
+     */
+    public String resolvePath(String filepath, String prefix, String fileName) {
+        String file = !filepath.isEmpty() ? filepath + "/" : "";
+        file += prefix + fileName;
+        return file;
+    }
+
+    /**
+     * Записывает целые числа в файл, не создавая промежуточной строки со всем содержимым.
+     * Если файл не найден или нет прав доступа, выводит сообщение об ошибке.
+     *
+     * @param data     входные данные
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     */
+    public void write(LongColumn data, String filepath, String prefix, String fileName, boolean append) {
+        long start = System.nanoTime();
+        if (data.size() > 0) {
+            try (DataWriter writer = openColumnWriter(filepath, prefix, fileName, append, DataType.INTEGER)) {
+                for (int i = 0; i < data.size(); i++) {
+                    writer.write(data.get(i));
+                }
+            }
+        }
+        metrics.addStage(MetricsManager.Stage.WRITE, start);
+    }
+
+    /**
+     * Записывает вещественные числа в файл, не создавая промежуточной строки со всем содержимым.
+     * Если файл не найден или нет прав доступа, выводит сообщение об ошибке.
+     *
+     * @param data     входные данные
+     * @param filepath путь к файлу
+     * @param prefix   префикс для названия файла
+     * @param fileName название файла
+     * @param append   флаг дописывания в конец файла
+     */
+    public void write(DoubleColumn data, String filepath, String prefix, String fileName, boolean append) {
+        long start = System.nanoTime();
+        if (data.size() > 0) {
+            try (DataWriter writer = openColumnWriter(filepath, prefix, fileName, append, DataType.FLOAT)) {
+                for (int i = 0; i < data.size(); i++) {
+                    writer.write(data.get(i));
+                }
+            }
+        }
+        metrics.addStage(MetricsManager.Stage.WRITE, start);
     }
 }
@@ -0,0 +1,227 @@
+package Managers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Файл, который продолжает дописываться во время чтения, как в {@code tail -F}.
+ * Каждый вызов {@link #poll(Consumer)} читает байты, добавленные с прошлого вызова, и передает
+ * обработчику завершенные строки; незавершенная последняя строка ждет своего перевода строки.
+ * Строки завершаются символами '\n', '\r' или парой "\r\n", как при чтении {@link java.io.BufferedReader},
+ * в том числе если '\r' и '\n' прочитаны разными вызовами.
+ * <p>
+ * Если файл по тому же пути заменен другим (ротация), старый файл дочитывается до конца,
+ * его незавершенная строка передается как есть, и чтение продолжается с начала нового файла.
+ * Если файл стал короче прочитанной позиции (усечение), чтение начинается с его начала.
+ * Если файла нет, он ожидается, пока не появится. Когда чтение прекращается, незавершенную последнюю
+ * строку передает {@link #finish(Consumer)}, как ее передало бы обычное чтение файла.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class FollowedFile implements AutoCloseable {
+    //Наибольшее количество байтов, читаемых за один вызов
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    //Путь к файлу
+    private final Path path;
+    //Кодировка строк
+    private final Charset charset;
+    //Канал открытого файла или null, если файл еще не появился
+    private FileChannel channel;
+    //Идентификатор открытого файла в файловой системе, по которому определяется ротация
+    private Object fileKey;
+    //Позиция следующего непрочитанного байта
+    private long position;
+    //Буфер чтения
+    private final ByteBuffer buffer = ByteBuffer.allocate(BATCH_SIZE);
+    //Байты незавершенной строки
+    private byte[] line = new byte[256];
+    //Количество байтов незавершенной строки
+    private int length = 0;
+    //Флаг строки, завершенной символом '\r': следующий за ним '\n' пропускается, даже если прочитан позже
+    private boolean skipLineFeed = false;
+    //Сборщик показателей выполнения
+    private final MetricsManager metrics;
+
+    /**
+     * Создает читатель файла. Сам файл открывается при первом вызове {@link #poll(Consumer)}.
+     *
+     * @param fileName название файла
+     * @param charset  кодировка строк
+     * @param metrics  сборщик показателей выполнения
+     */
+    FollowedFile(String fileName, Charset charset, MetricsManager metrics) {
+        this.path = Path.of(fileName);
+        this.charset = charset;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return название файла
+     */
+    public String getFileName() {
+        return path.toString();
+    }
+
+    /**
+     * Читает не больше {@value #BATCH_SIZE} новых байтов и передает обработчику завершенные строки.
+     *
+     * @param consumer обработчик строк
+     * @return количество прочитанных байтов; 0, если новых данных нет
+     * @throws IOException при ошибке чтения
+     */
+    public int poll(Consumer<String> consumer) throws IOException {
+        if (channel == null && !open()) return 0;
+        long start = System.nanoTime();
+        buffer.clear();
+        int read = channel.read(buffer, position);
+        if (read > 0) {
+            position += read;
+            int lines = split(read, consumer);
+            metrics.addFile(getFileName(), lines, read, System.nanoTime() - start);
+            metrics.addStage(MetricsManager.Stage.READ, start);
+            return read;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Файл переименован, а новый еще не создан: ждем его, дочитав старый
+            return 0;
+        }
+        if (fileKey != null && !Objects.equals(fileKey, attributes.fileKey())) {
+            flushLine(consumer);
+            channel.close();
+            channel = null;
+            return open() ? poll(consumer) : 0;
+        }
+        if (attributes.size() < position) {
+            flushLine(consumer);
+            position = 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Передает обработчику незавершенную последнюю строку, если она есть. Вызывается, когда чтение
+     * файла прекращается и перевода строки для нее больше не будет.
+     *
+     * @param consumer обработчик строк
+     */
+    public void finish(Consumer<String> consumer) {
+        flushLine(consumer);
+    }
+
+    /**
+     * Передает обработчику незавершенную строку, если она есть.
+     *
+     * @param consumer обработчик строк
+     */
+    private void flushLine(Consumer<String> consumer) {
+        if (length > 0) {
+            consumer.accept(decode(length));
+            length = 0;
+        }
+        skipLineFeed = false;
+    }
+
+    /**
+     * Делит прочитанные байты на строки по символам '\n' и '\r'; пара "\r\n" завершает одну строку.
+     *
+     * @param read     количество прочитанных байтов в буфере
+     * @param consumer обработчик строк
+     * @return количество завершенных строк
+     */
+    private int split(int read, Consumer<String> consumer) {
+        byte[] bytes = buffer.array();
+        int lines = 0;
+        int start = 0;
+        for (int i = 0; i < read; i++) {
+            byte b = bytes[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == '\n') {
+                    start = i + 1;
+                    continue;
+                }
+            }
+            if (b == '\n' || b == '\r') {
+                append(bytes, start, i);
+                consumer.accept(decode(length));
+                length = 0;
+                start = i + 1;
+                skipLineFeed = b == '\r';
+                lines++;
+            }
+        }
+        append(bytes, start, read);
+        return lines;
+    }
+
+    /**
+     * Дописывает байты к незавершенной строке.
+     *
+     * @param bytes массив байтов
+     * @param from  начало диапазона
+     * @param to    конец диапазона, не включительно
+     */
+    private void append(byte[] bytes, int from, int to) {
+        int count = to - from;
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(bytes, from, line, length, count);
+        length += count;
+    }
+
+    /**
+     * Декодирует начало незавершенной строки.
+     *
+     * @param end количество декодируемых байтов
+     * @return строка
+     */
+    private String decode(int end) {
+        return new String(line, 0, end, charset);
+    }
+
+    /**
+     * Открывает файл, если он существует.
+     *
+     * @return {@code true}, если файл открыт
+     * @throws IOException при невозможности открыть существующий файл
+     */
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Закрывает файл.
+     *
+     * @throws IOException при ошибке закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package Managers;
+
+import Utility.Console;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * Предназначен для построчной записи данных в выходной файл.
+ * Файл открывается лениво, при записи первой строки. Ошибки записи не прерывают обработку,
+ * а запоминаются и выводятся в консоль при закрытии писателя.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class LineWriter implements DataWriter {
+    //Консоль для вывода ошибок
+    private final Console console;
+    //Путь к выходному файлу
+    private final String file;
+    //Название выходного файла
+    private final String fileName;
+    //Флаг дописывания в конец файла
+    private final boolean append;
+    //Получатель сведений о дописанных в файл порциях или null
+    private final OutputFile.AppendListener listener;
+
+    //Буферизированный поток записи, создается при записи первой строки
+    private BufferedWriter writer;
+    //Текст первой возникшей ошибки
+    private String error;
+    //Буфер для перевода целых чисел в текст
+    private final char[] digits = new char[20];
+
+    /**
+     * Создает писатель в выходной файл.
+     *
+     * @param console  консоль
+     * @param file     путь к выходному файлу
+     * @param fileName название выходного файла
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных в файл порциях или {@code null}
+     */
+    LineWriter(Console console, String file, String fileName, boolean append, OutputFile.AppendListener listener) {
+        this.console = console;
+        this.file = file;
+        this.fileName = fileName;
+        this.append = append;
+        this.listener = listener;
+    }
+
+    /**
+     * Записывает строку в файл, дополняя ее символом новой строки.
+     *
+     * @param line записываемая строка
+     */
+    @Override
+    public void write(String line) {
+        if (error != null) return;
+        try {
+            if (writer == null) {
+                open();
+            }
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Записывает целое число в файл, дополняя его символом новой строки.
+     * Число переводится в текст без создания промежуточной строки.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(long value) {
+        if (error != null) return;
+        int position = digits.length;
+        boolean negative = value < 0;
+        // Цифры получаем из отрицательного значения, чтобы корректно обработать Long.MIN_VALUE
+        long rest = negative ? value : -value;
+        do {
+            digits[--position] = (char) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) digits[--position] = '-';
+        try {
+            if (writer == null) {
+                open();
+            }
+            writer.write(digits, position, digits.length - position);
+            writer.write('\n');
+        } catch (IOException e) {
+            if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Записывает вещественное число в файл, дополняя его символом новой строки.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(double value) {
+        write(Double.toString(value));
+    }
+
+    /**
+     * Передает записанные строки в файл, не закрывая его, чтобы они сразу стали доступны другим программам.
+     */
+    @Override
+    public void flush() {
+        if (writer == null || error != null) return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+        }
+    }
+
+    /**
+     * Открывает выходной файл.
+     *
+     * @throws IOException при невозможности открыть файл
+     */
+    private void open() throws IOException {
+        try {
+            writer = new BufferedWriter(FileManager.openOutput(file, append, listener));
+        } catch (IOException e) {
+            error = "Не удалось записать в " + file + ".";
+            throw e;
+        }
+    }
+
+    /**
+     * Закрывает выходной файл и выводит в консоль ошибку, если она возникла во время записи.
+     */
+    @Override
+    public void close() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                if (error == null) error = "Неожиданная ошибка сохранения в файл " + fileName + ".";
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                console.printError("Ошибка закрытия файла.");
+            }
+            writer = null;
+        }
+        if (error != null) {
+            console.printError(error);
+            error = null;
+        }
+    }
+}
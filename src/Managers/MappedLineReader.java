@@ -0,0 +1,194 @@
+package Managers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Предназначен для построчного чтения файла, отображенного в память.
+ * Строки передаются обработчику диапазонами байтов, без декодирования в {@link String}.
+ * Границы строк определяются так же, как у {@link java.io.BufferedReader#readLine()}:
+ * строка завершается символом {@code '\n'}, {@code '\r'} или парой {@code "\r\n"}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class MappedLineReader implements Closeable {
+    //Размер отображаемого в память окна файла
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    //Канал открытого файла
+    private final FileChannel channel;
+    //Размер файла
+    private final long size;
+
+    //Отображенное в память окно файла
+    private MappedByteBuffer window;
+    //Позиция начала окна в файле
+    private long windowStart = 0;
+    //Позиция следующей строки в окне
+    private int position = 0;
+
+    /**
+     * Открывает файл для чтения.
+     *
+     * @param fileName название файла
+     * @throws IOException при невозможности открыть файл
+     */
+    public MappedLineReader(String fileName) throws IOException {
+        channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            map(0, WINDOW_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Считывает следующую строку файла и передает ее обработчику.
+     *
+     * @param consumer обработчик строки
+     * @return {@code false}, если строки в файле закончились
+     * @throws IOException при ошибке чтения
+     */
+    public boolean readLine(ByteLineConsumer consumer) throws IOException {
+        if (windowStart + position >= size) return false;
+        int end = findLineEnd();
+        if (end < 0) {
+            // Строка не поместилась в окно: сдвигаем окно к ее началу, увеличивая его при необходимости
+            long length = WINDOW_SIZE;
+            do {
+                map(windowStart + position, length);
+                length *= 2;
+                end = findLineEnd();
+            } while (end < 0 && windowStart + window.limit() < size && window.limit() < Integer.MAX_VALUE);
+            if (end < 0 && windowStart + window.limit() < size) {
+                throw new IOException("Строка слишком длинная.");
+            }
+        }
+        if (end < 0) {
+            // Последняя строка файла без символа перевода строки
+            consumer.accept(window, position, window.limit());
+            position = window.limit();
+            return true;
+        }
+        if (window.get(end) == '\r' && end + 1 == window.limit() && windowStart + end + 1 < size) {
+            // Пара "\r\n" разорвана границей окна: сдвигаем окно, чтобы увидеть следующий байт
+            int length = end - position;
+            map(windowStart + position, Math.max(WINDOW_SIZE, length + 2L));
+            end = length;
+        }
+        consumer.accept(window, position, end);
+        if (window.get(end) == '\r' && end + 1 < window.limit() && window.get(end + 1) == '\n') {
+            position = end + 2;
+        } else {
+            position = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Находит конец текущей строки в окне.
+     *
+     * @return индекс символа перевода строки или -1, если строка не заканчивается в окне
+     */
+    private int findLineEnd() {
+        int limit = window.limit();
+        for (int i = position; i < limit; i++) {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Отображает в память окно файла.
+     *
+     * @param start  позиция начала окна в файле
+     * @param length желаемый размер окна
+     * @throws IOException при ошибке отображения
+     */
+    private void map(long start, long length) throws IOException {
+        long mapped = Math.min(Math.min(length, Integer.MAX_VALUE), size - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+        windowStart = start;
+        position = 0;
+    }
+
+    /**
+     * Декодирует диапазон байтов UTF-8 в строку.
+     *
+     * @param buffer буфер
+     * @param from   индекс первого байта
+     * @param to     индекс, следующий за последним байтом
+     * @return декодированная строка
+     */
+    public static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Вычисляет длину строки в символах {@link String}, не декодируя ее.
+     * Длина совпадает с длиной строки, которую вернул бы {@link #decode(ByteBuffer, int, int)}.
+     *
+     * @param buffer буфер со строкой
+     * @param from   индекс первого байта строки
+     * @param to     индекс, следующий за последним байтом строки
+     * @return длина строки или -1, если байты не являются корректной записью UTF-8
+     */
+    public static int utf16Length(ByteBuffer buffer, int from, int to) {
+        int length = 0;
+        int i = from;
+        while (i < to) {
+            int b = buffer.get(i) & 0xFF;
+            if (b < 0x80) {
+                i++;
+                length++;
+                continue;
+            }
+            int count;
+            int min;
+            int max;
+            // Допустимые значения второго байта отсекают избыточные записи, суррогаты и символы за U+10FFFF
+            if (b >= 0xC2 && b <= 0xDF) {
+                count = 1;
+                min = 0x80;
+                max = 0xBF;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                count = 2;
+                min = b == 0xE0 ? 0xA0 : 0x80;
+                max = b == 0xED ? 0x9F : 0xBF;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                count = 3;
+                min = b == 0xF0 ? 0x90 : 0x80;
+                max = b == 0xF4 ? 0x8F : 0xBF;
+            } else {
+                return -1;
+            }
+            if (to - i <= count) return -1;
+            int second = buffer.get(i + 1) & 0xFF;
+            if (second < min || second > max) return -1;
+            for (int j = 2; j <= count; j++) {
+                if ((buffer.get(i + j) & 0xC0) != 0x80) return -1;
+            }
+            i += count + 1;
+            length += count == 3 ? 2 : 1;
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
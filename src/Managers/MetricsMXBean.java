@@ -0,0 +1,68 @@
+package Managers;
+
+import java.util.Map;
+
+/**
+ * Интерфейс JMX показателей выполнения программы.
+ * Показатели доступны во время работы, например в JConsole или VisualVM,
+ * под именем {@value MetricsManager#OBJECT_NAME}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public interface MetricsMXBean {
+    /**
+     * @return время с начала обработки в миллисекундах
+     */
+    long getElapsedMillis();
+
+    /**
+     * @return время каждого этапа в миллисекундах: read, classify, statistics, write
+     */
+    Map<String, Long> getStageMillis();
+
+    /**
+     * @return количество считанных строк
+     */
+    long getLines();
+
+    /**
+     * @return количество байтов входных файлов
+     */
+    long getBytes();
+
+    /**
+     * @return количество строк каждого типа: integer, float, string
+     */
+    Map<String, Long> getTypeCounts();
+
+    /**
+     * @return текущее количество пакетов в каждой очереди конвейера
+     */
+    Map<String, Integer> getQueueDepths();
+
+    /**
+     * @return наибольшее замеченное количество пакетов в каждой очереди конвейера
+     */
+    Map<String, Integer> getMaxQueueDepths();
+
+    /**
+     * @return количество байтов, выделенных потоками обработки, или -1, если JVM это не поддерживает
+     */
+    long getAllocatedBytes();
+
+    /**
+     * @return количество сборок мусора с начала обработки
+     */
+    long getGcCount();
+
+    /**
+     * @return время сборок мусора с начала обработки в миллисекундах
+     */
+    long getGcMillis();
+
+    /**
+     * @return все показатели в формате JSON
+     */
+    String getSummaryJson();
+}
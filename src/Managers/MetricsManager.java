@@ -0,0 +1,452 @@
+package Managers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Собирает показатели выполнения программы: время этапов, количество строк и байтов по входным файлам,
+ * количество строк каждого типа, заполненность очередей конвейера, выделение памяти и сборки мусора.
+ * <p>
+ * Показатели накапливаются крупными порциями: по файлу, части файла или пакету строк, а время
+ * классификации оценивается по выборке строк, поэтому сбор не замедляет обработку заметно.
+ * Показатели собираются, только если указан ключ {@code --metrics} или {@code --jmx}.
+ * Время этапа чтения включает обработку строк, выполняемую во время чтения: в потоковых режимах
+ * это классификация, статистика и запись.
+ * <p>
+ * Сборщик создается на один запуск сортировки и передается файловому менеджеру, поэтому показатели разных
+ * запусков, например заданий сервера или вызовов встроенного движка, не смешиваются и не накапливаются.
+ * Запуски без сбора показателей используют общий отключенный сборщик {@link #disabled()}, который ничего не хранит.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class MetricsManager implements MetricsMXBean {
+    //Имя, под которым показатели регистрируются в JMX
+    public static final String OBJECT_NAME = "ShiftTestTask:type=Metrics";
+
+    //Отключенный сборщик
+    private static final MetricsManager DISABLED = new MetricsManager(false);
+
+    /**
+     * Этапы обработки.
+     */
+    public enum Stage {
+        READ, CLASSIFY, STATISTICS, WRITE
+    }
+
+    //Время начала обработки
+    private volatile long startNanos = System.nanoTime();
+    //Время каждого этапа в наносекундах
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+    //Количество строк каждого типа в порядке Utility.DataType
+    private final LongAdder[] typeCounts = {new LongAdder(), new LongAdder(), new LongAdder()};
+    //Показатели входных файлов: строки, байты, время чтения в наносекундах
+    private final Map<String, long[]> files = Collections.synchronizedMap(new LinkedHashMap<>());
+    //Очереди конвейера: текущий размер и наибольший замеченный
+    private final Map<String, IntSupplier> queues = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, AtomicInteger> maxQueueDepths = Collections.synchronizedMap(new LinkedHashMap<>());
+    //Байты, выделенные завершившимися задачами рабочих потоков
+    private final LongAdder workerAllocatedBytes = new LongAdder();
+    //Основной поток и выделенные им байты к началу обработки
+    private volatile long mainThreadId = Thread.currentThread().getId();
+    private volatile long mainAllocatedBytes;
+    //Количество и время сборок мусора к началу обработки
+    private volatile long gcCount;
+    private volatile long gcMillis;
+    //Флаг подсчета выделенной памяти: обращения к JMX нужны, только если показатели запрошены
+    private volatile boolean tracking = false;
+    //Флаг сбора показателей
+    private final boolean enabled;
+
+    /**
+     * Создает сборщик показателей одного запуска.
+     */
+    public MetricsManager() {
+        this(true);
+    }
+
+    /**
+     * Создает сборщик показателей.
+     *
+     * @param enabled флаг сбора показателей
+     */
+    private MetricsManager(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return общий сборщик, который не собирает показатели
+     */
+    public static MetricsManager disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Отмечает начало обработки вызывающим потоком: от этого момента считаются время,
+     * выделение памяти основным потоком и сборки мусора. Без этого вызова счетчики строк и времени
+     * этапов все равно ведутся, но выделение памяти рабочими потоками не подсчитывается.
+     */
+    public void start() {
+        if (!enabled) return;
+        tracking = true;
+        startNanos = System.nanoTime();
+        mainThreadId = Thread.currentThread().getId();
+        mainAllocatedBytes = allocatedBytes(mainThreadId);
+        gcCount = totalGcCount();
+        gcMillis = totalGcMillis();
+    }
+
+    /**
+     * Регистрирует показатели в JMX под именем {@value #OBJECT_NAME}, заменяя показатели прошлого запуска.
+     *
+     * @throws JMException если зарегистрировать не удалось
+     */
+    public void register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        synchronized (MetricsManager.class) {
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+    }
+
+    /**
+     * Добавляет время этапа.
+     *
+     * @param stage этап
+     * @param start время начала этапа, полученное {@link System#nanoTime()}
+     */
+    public void addStage(Stage stage, long start) {
+        if (!enabled) return;
+        stageNanos[stage.ordinal()].add(System.nanoTime() - start);
+    }
+
+    /**
+     * Добавляет оценку времени классификации и количество строк каждого типа.
+     *
+     * @param nanos  время классификации в наносекундах
+     * @param counts количество строк каждого типа в порядке {@code Utility.DataType}
+     */
+    public void addClassified(long nanos, long[] counts) {
+        if (!enabled) return;
+        stageNanos[Stage.CLASSIFY.ordinal()].add(nanos);
+        for (int i = 0; i < typeCounts.length; i++) {
+            typeCounts[i].add(counts[i]);
+        }
+    }
+
+    /**
+     * Добавляет показатели чтения входного файла или его части.
+     *
+     * @param fileName название файла
+     * @param lines    количество считанных строк
+     * @param bytes    количество считанных байтов
+     * @param nanos    время чтения в наносекундах
+     */
+    public void addFile(String fileName, long lines, long bytes, long nanos) {
+        if (!enabled) return;
+        files.merge(fileName, new long[]{lines, bytes, nanos}, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2]});
+    }
+
+    /**
+     * Добавляет очередь конвейера, размер которой показывается во время работы.
+     *
+     * @param name  название очереди
+     * @param depth текущее количество элементов очереди
+     */
+    public void addQueue(String name, IntSupplier depth) {
+        if (!enabled) return;
+        queues.put(name, depth);
+        maxQueueDepths.putIfAbsent(name, new AtomicInteger());
+    }
+
+    /**
+     * Учитывает замеченное количество элементов очереди конвейера.
+     *
+     * @param name  название очереди
+     * @param depth количество элементов
+     */
+    public void recordQueueDepth(String name, int depth) {
+        if (!enabled) return;
+        maxQueueDepths.computeIfAbsent(name, key -> new AtomicInteger()).accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * @return отметка выделенной памяти текущим потоком для {@link #addAllocation(long)}
+     */
+    public long allocationMark() {
+        return tracking ? allocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Учитывает память, выделенную текущим потоком с момента отметки. Вызывается в конце задачи рабочего потока.
+     *
+     * @param mark отметка, полученная {@link #allocationMark()} в начале задачи
+     */
+    public void addAllocation(long mark) {
+        if (mark < 0) return;
+        long bytes = allocatedBytes(Thread.currentThread().getId());
+        if (bytes >= 0) workerAllocatedBytes.add(bytes - mark);
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public Map<String, Long> getStageMillis() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name().toLowerCase(Locale.ROOT), stageNanos[stage.ordinal()].sum() / 1_000_000);
+        }
+        return result;
+    }
+
+    @Override
+    public long getLines() {
+        long lines = 0;
+        for (long[] file : files().values()) {
+            lines += file[0];
+        }
+        return lines;
+    }
+
+    @Override
+    public long getBytes() {
+        long bytes = 0;
+        for (long[] file : files().values()) {
+            bytes += file[1];
+        }
+        return bytes;
+    }
+
+    @Override
+    public Map<String, Long> getTypeCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("integer", typeCounts[0].sum());
+        result.put("float", typeCounts[1].sum());
+        result.put("string", typeCounts[2].sum());
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        queues.forEach((name, depth) -> result.put(name, depth.getAsInt()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> getMaxQueueDepths() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        maxQueueDepths.forEach((name, depth) -> result.put(name, depth.get()));
+        return result;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        long main = allocatedBytes(mainThreadId);
+        if (main < 0) return -1;
+        return main - mainAllocatedBytes + workerAllocatedBytes.sum();
+    }
+
+    @Override
+    public long getGcCount() {
+        return totalGcCount() - gcCount;
+    }
+
+    @Override
+    public long getGcMillis() {
+        return totalGcMillis() - gcMillis;
+    }
+
+    @Override
+    public String getSummaryJson() {
+        long elapsed = System.nanoTime() - startNanos;
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"elapsedMillis\": ").append(millis(elapsed)).append(",\n");
+        json.append("  \"stageMillis\": {");
+        for (Stage stage : Stage.values()) {
+            json.append(stage.ordinal() == 0 ? "" : ", ").append('"').append(stage.name().toLowerCase(Locale.ROOT))
+                    .append("\": ").append(millis(stageNanos[stage.ordinal()].sum()));
+        }
+        json.append("},\n");
+        long lines = getLines();
+        long bytes = getBytes();
+        long read = stageNanos[Stage.READ.ordinal()].sum();
+        json.append("  \"lines\": ").append(lines).append(",\n");
+        json.append("  \"bytes\": ").append(bytes).append(",\n");
+        json.append("  \"linesPerSecond\": ").append(perSecond(lines, read)).append(",\n");
+        json.append("  \"bytesPerSecond\": ").append(perSecond(bytes, read)).append(",\n");
+        json.append("  \"files\": [");
+        boolean first = true;
+        for (Map.Entry<String, long[]> file : files().entrySet()) {
+            long[] value = file.getValue();
+            json.append(first ? "\n" : ",\n").append("    {\"name\": ").append(quote(file.getKey()))
+                    .append(", \"lines\": ").append(value[0])
+                    .append(", \"bytes\": ").append(value[1])
+                    .append(", \"millis\": ").append(millis(value[2]))
+                    .append(", \"linesPerSecond\": ").append(perSecond(value[0], value[2]))
+                    .append(", \"bytesPerSecond\": ").append(perSecond(value[1], value[2])).append('}');
+            first = false;
+        }
+        json.append(first ? "],\n" : "\n  ],\n");
+        json.append("  \"typeCounts\": ").append(object(getTypeCounts())).append(",\n");
+        json.append("  \"maxQueueDepths\": ").append(object(getMaxQueueDepths())).append(",\n");
+        json.append("  \"allocatedBytes\": ").append(getAllocatedBytes()).append(",\n");
+        json.append("  \"gcCount\": ").append(getGcCount()).append(",\n");
+        json.append("  \"gcMillis\": ").append(getGcMillis()).append(",\n");
+        json.append("  \"heapPeakBytes\": ").append(heapPeakBytes()).append('\n');
+        json.append("}\n");
+        return json.toString();
+    }
+
+    /**
+     * @return копия показателей входных файлов, которую можно обходить во время чтения
+     */
+    private Map<String, long[]> files() {
+        synchronized (files) {
+            return new LinkedHashMap<>(files);
+        }
+    }
+
+    /**
+     * Записывает показатели в формате JSON в файл.
+     *
+     * @param file путь к файлу
+     * @throws IOException при ошибке записи
+     */
+    public void writeJson(String file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8)) {
+            writer.write(getSummaryJson());
+        }
+    }
+
+    /**
+     * Переводит наносекунды в миллисекунды с тремя знаками после точки.
+     *
+     * @param nanos наносекунды
+     * @return текст числа
+     */
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Вычисляет скорость обработки.
+     *
+     * @param amount количество строк или байтов
+     * @param nanos  время в наносекундах
+     * @return количество в секунду, округленное до целого
+     */
+    private static long perSecond(long amount, long nanos) {
+        return nanos > 0 ? Math.round(amount * 1e9 / nanos) : 0;
+    }
+
+    /**
+     * Записывает отображение строк в числа как объект JSON.
+     *
+     * @param map отображение
+     * @return текст объекта
+     */
+    private static String object(Map<String, ? extends Number> map) {
+        StringBuilder json = new StringBuilder("{");
+        map.forEach((key, value) -> json.append(json.length() > 1 ? ", " : "").append(quote(key)).append(": ").append(value));
+        return json.append('}').toString();
+    }
+
+    /**
+     * Записывает строку как строку JSON, экранируя кавычки, обратную косую черту и управляющие символы.
+     *
+     * @param text строка
+     * @return текст строки JSON
+     */
+    private static String quote(String text) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Определяет количество байтов, выделенных потоком за все время его работы.
+     *
+     * @param threadId идентификатор потока
+     * @return количество байтов или -1, если JVM не поддерживает подсчет
+     */
+    private static long allocatedBytes(long threadId) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                return allocations.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return количество сборок мусора с запуска JVM
+     */
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * @return время сборок мусора с запуска JVM в миллисекундах
+     */
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * @return сумма наибольшей занятости областей кучи с запуска JVM в байтах
+     */
+    private static long heapPeakBytes() {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                bytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        return bytes;
+    }
+}
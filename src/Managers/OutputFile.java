@@ -0,0 +1,288 @@
+package Managers;
+
+import Utility.KeyedLocks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поток записи в выходной файл, безопасный при одновременной записи в один файл несколькими
+ * потоками выполнения и программами.
+ * <p>
+ * Данные записываются во временный скрытый файл в той же директории. При перезаписи временный файл
+ * заменяет выходной переименованием при первом сбросе или закрытии, поэтому другие программы видят либо
+ * прежний файл, либо новый, а не наполовину записанный; после этого запись продолжается прямо в выходной файл.
+ * При дописывании накопленные данные при каждом сбросе и при закрытии переносятся в конец выходного файла
+ * под блокировкой файла, поэтому данные разных писателей не перемешиваются внутри одной порции.
+ * Блокировки отдельные для каждого файла, так что запись в разные файлы не ждет друг друга.
+ * Под той же блокировкой получатель {@link AppendListener} узнает размер файла перед каждой порцией,
+ * а {@link #locked(String, LockedAction)} позволяет прочитать файл, пока в него никто не дописывает.
+ * <p>
+ * Временные файлы, не перенесенные к завершению JVM, удаляются при ее штатном завершении. После аварийного
+ * завершения процесса рядом с выходными файлами могут остаться файлы {@code .<название>.<pid>.<номер>.tmp}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class OutputFile extends OutputStream {
+    //Блокировки выходных файлов внутри программы: блокировка файла в системе не разделяется между каналами одной JVM
+    private static final KeyedLocks<Path> LOCKS = new KeyedLocks<>();
+    //Счетчик для уникальных названий временных файлов
+    private static final AtomicLong COUNTER = new AtomicLong();
+    //Временные файлы, которые еще не перенесены в выходные и не удалены
+    private static final Set<Path> TEMPS = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(OutputFile::deleteTemps, "output-temp-cleanup"));
+    }
+
+    //Путь к выходному файлу
+    private final Path target;
+    //Флаг дописывания в конец файла
+    private final boolean append;
+    //Получатель сведений о дописанных порциях или null
+    private final AppendListener listener;
+    //Путь к временному файлу
+    private final Path temp;
+    //Канал временного файла, после замены выходного файла - канал выходного файла
+    private final FileChannel channel;
+    //Флаг замены выходного файла временным
+    private boolean replaced = false;
+    //Флаг закрытия потока
+    private boolean closed = false;
+
+    /**
+     * Создает временный файл рядом с выходным.
+     *
+     * @param file     путь к выходному файлу
+     * @param append   флаг дописывания в конец файла
+     * @param listener получатель сведений о дописанных порциях или {@code null}
+     * @throws IOException если выходной файл недоступен для записи или не удалось создать временный файл
+     */
+    OutputFile(String file, boolean append, AppendListener listener) throws IOException {
+        this.target = Path.of(file).toAbsolutePath().normalize();
+        if (Files.isDirectory(target) || Files.exists(target) && !Files.isWritable(target)) {
+            throw new AccessDeniedException(file);
+        }
+        this.append = append;
+        this.listener = listener;
+        this.temp = createTemp(target);
+        TEMPS.add(temp);
+        try {
+            this.channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            deleteTemp();
+            throw e;
+        }
+    }
+
+    /**
+     * Создает пустой временный скрытый файл рядом с выходным файлом.
+     *
+     * @param target путь к выходному файлу
+     * @return путь к временному файлу
+     * @throws IOException при невозможности создать файл
+     */
+    private static Path createTemp(Path target) throws IOException {
+        String prefix = "." + target.getFileName() + "." + ProcessHandle.current().pid() + ".";
+        while (true) {
+            try {
+                return Files.createFile(target.resolveSibling(prefix + COUNTER.incrementAndGet() + ".tmp"));
+            } catch (FileAlreadyExistsException ignored) {
+                // Файл оставлен прерванным запуском с тем же номером процесса
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(ByteBuffer.wrap(new byte[]{(byte) b}));
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        write(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Записывает все оставшиеся байты буфера.
+     *
+     * @param source буфер с данными
+     * @throws IOException при ошибке записи
+     */
+    void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * Записывает все оставшиеся байты буферов одной собирающей записью.
+     *
+     * @param sources буферы с данными
+     * @throws IOException при ошибке записи
+     */
+    void write(ByteBuffer[] sources) throws IOException {
+        while (sources[sources.length - 1].hasRemaining()) {
+            channel.write(sources);
+        }
+    }
+
+    /**
+     * Делает записанные данные видимыми в выходном файле: заменяет им выходной файл или дописывает их в его конец.
+     *
+     * @throws IOException при ошибке записи
+     */
+    @Override
+    public void flush() throws IOException {
+        if (append) {
+            appendTemp();
+        } else if (!replaced) {
+            replaceTarget();
+        }
+    }
+
+    /**
+     * Переносит оставшиеся данные в выходной файл и удаляет временный файл.
+     *
+     * @throws IOException при ошибке записи
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            if (append || !replaced) deleteTemp();
+        }
+    }
+
+    /**
+     * Удаляет временный файл.
+     *
+     * @throws IOException при невозможности удалить файл
+     */
+    private void deleteTemp() throws IOException {
+        Files.deleteIfExists(temp);
+        TEMPS.remove(temp);
+    }
+
+    /**
+     * Удаляет оставшиеся временные файлы при завершении JVM.
+     */
+    private static void deleteTemps() {
+        for (Path path : TEMPS) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Файл останется, его можно удалить вручную
+            }
+        }
+    }
+
+    /**
+     * Заменяет выходной файл временным, сохраняя права доступа прежнего файла.
+     *
+     * @throws IOException при невозможности заменить файл
+     */
+    private void replaceTarget() throws IOException {
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Выходного файла еще нет или система не поддерживает права POSIX
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        TEMPS.remove(temp);
+        replaced = true;
+    }
+
+    /**
+     * Дописывает накопленные данные в конец выходного файла под блокировкой и очищает временный файл.
+     *
+     * @throws IOException при ошибке записи
+     */
+    private void appendTemp() throws IOException {
+        long size = channel.size();
+        if (size == 0) return;
+        LOCKS.lock(target);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            FileLock lock = out.lock();
+            try {
+                long before = out.size();
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, out);
+                }
+                if (listener != null) listener.appended(before, size);
+            } finally {
+                lock.release();
+            }
+        } finally {
+            LOCKS.unlock(target);
+        }
+        channel.truncate(0);
+    }
+
+    /**
+     * Выполняет действие под блокировкой, под которой в выходной файл дописываются данные,
+     * поэтому во время действия размер и содержимое файла не меняются.
+     *
+     * @param file   путь к существующему выходному файлу
+     * @param action действие
+     * @param <T>    тип результата действия
+     * @return результат действия
+     * @throws IOException при невозможности открыть файл или ошибке действия
+     */
+    static <T> T locked(String file, LockedAction<T> action) throws IOException {
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        LOCKS.lock(path);
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            FileLock lock = in.lock(0, Long.MAX_VALUE, true);
+            try {
+                return action.run();
+            } finally {
+                lock.release();
+            }
+        } finally {
+            LOCKS.unlock(path);
+        }
+    }
+
+    /**
+     * Получатель сведений о данных, дописанных в конец выходного файла. Вызывается под блокировкой файла,
+     * поэтому по размеру файла перед порцией видно, дописывал ли в него кто-то еще.
+     */
+    @FunctionalInterface
+    interface AppendListener {
+        /**
+         * @param size   размер выходного файла перед порцией
+         * @param length размер дописанной порции
+         */
+        void appended(long size, long length);
+    }
+
+    /**
+     * Действие, выполняемое под блокировкой выходного файла.
+     *
+     * @param <T> тип результата
+     */
+    @FunctionalInterface
+    interface LockedAction<T> {
+        T run() throws IOException;
+    }
+}
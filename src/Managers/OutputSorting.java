@@ -0,0 +1,73 @@
+package Managers;
+
+import java.nio.file.Path;
+
+/**
+ * Параметры упорядочивания выходных файлов: числа записываются по возрастанию значения, строки - в
+ * лексикографическом порядке, повторы при необходимости удаляются.
+ * Данные, не помещающиеся в отведенную память, сортируются внешней сортировкой слиянием
+ * через временные файлы, см. {@link SortingWriter}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class OutputSorting {
+    //Объем памяти для сортировки каждого выходного файла по умолчанию, в мегабайтах
+    public static final int DEFAULT_MEMORY_MB = 64;
+
+    //Флаг удаления повторов
+    private final boolean unique;
+    //Объем памяти для сортировки каждого выходного файла в байтах
+    private final long memory;
+    //Директория, в которой создаются временные файлы
+    private final Path directory;
+
+    /**
+     * Создает параметры упорядочивания с временными файлами в каталоге временных файлов системы.
+     *
+     * @param unique   флаг удаления повторов
+     * @param memoryMb объем памяти для сортировки каждого выходного файла в мегабайтах
+     * @throws IllegalArgumentException если объем памяти не положителен
+     */
+    public OutputSorting(boolean unique, int memoryMb) {
+        this(unique, memoryMb, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Создает параметры упорядочивания.
+     *
+     * @param unique    флаг удаления повторов
+     * @param memoryMb  объем памяти для сортировки каждого выходного файла в мегабайтах
+     * @param directory директория, в которой создаются временные файлы
+     * @throws IllegalArgumentException если объем памяти не положителен
+     */
+    public OutputSorting(boolean unique, int memoryMb, Path directory) {
+        if (memoryMb <= 0) {
+            throw new IllegalArgumentException("Некорректный объем памяти сортировки.");
+        }
+        this.unique = unique;
+        this.memory = memoryMb * 1024L * 1024;
+        this.directory = directory;
+    }
+
+    /**
+     * @return {@code true}, если повторы удаляются
+     */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * @return объем памяти для сортировки каждого выходного файла в байтах
+     */
+    public long getMemory() {
+        return memory;
+    }
+
+    /**
+     * @return директория, в которой создаются временные файлы
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,511 @@
+package Managers;
+
+import Buffers.LongColumn;
+import Utility.Console;
+import Utility.DataType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Писатель, упорядочивающий данные перед записью в выходной файл внешней сортировкой слиянием.
+ * Данные накапливаются в памяти; когда отведенный объем памяти заполнен, они сортируются
+ * и сбрасываются во временный файл - серию. При закрытии серии сливаются в выходной файл,
+ * поэтому объем данных ограничен не памятью, а местом на диске. Если серий больше, чем {@value #MERGE_FAN_IN},
+ * они предварительно сливаются группами. Если все данные поместились в память, временные файлы не создаются.
+ * <p>
+ * Числа хранятся ключами типа {@code long}: целые - как есть, вещественные - битами, преобразованными так,
+ * чтобы порядок ключей совпадал с {@link Double#compare}. Данные записываются в выходной файл только
+ * при закрытии, поэтому {@link #flush()} ничего не делает.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class SortingWriter implements DataWriter {
+    //Наибольшее количество серий, сливаемых за один проход
+    private static final int MERGE_FAN_IN = 64;
+    //Размер буфера чтения и записи серии
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+    //Примерный объем памяти строки без учета ее символов
+    private static final int STRING_OVERHEAD = 48;
+
+    //Консоль для вывода ошибок
+    private final Console console;
+    //Название выходного файла
+    private final String fileName;
+    //Писатель в выходной файл
+    private final DataWriter target;
+    //Тип записываемых данных
+    private final DataType type;
+    //Параметры упорядочивания
+    private final OutputSorting sorting;
+
+    //Ключи чисел, накопленные в памяти
+    private final LongColumn keys = new LongColumn();
+    //Строки, накопленные в памяти
+    private final List<String> strings = new ArrayList<>();
+    //Примерный объем памяти накопленных данных
+    private long used = 0;
+    //Временные файлы отсортированных серий
+    private final List<Path> runs = new ArrayList<>();
+    //Временная директория серий, создается при сбросе первой серии
+    private Path directory;
+    //Текст первой возникшей ошибки
+    private String error;
+
+    /**
+     * Создает упорядочивающий писатель.
+     *
+     * @param console  консоль
+     * @param fileName название выходного файла
+     * @param target   писатель в выходной файл
+     * @param type     тип записываемых данных
+     * @param sorting  параметры упорядочивания
+     */
+    SortingWriter(Console console, String fileName, DataWriter target, DataType type, OutputSorting sorting) {
+        this.console = console;
+        this.fileName = fileName;
+        this.target = target;
+        this.type = type;
+        this.sorting = sorting;
+    }
+
+    /**
+     * Добавляет строку.
+     *
+     * @param line записываемая строка
+     */
+    @Override
+    public void write(String line) {
+        if (error != null) return;
+        strings.add(line);
+        used += STRING_OVERHEAD + line.length();
+        if (used >= sorting.getMemory()) spill();
+    }
+
+    /**
+     * Добавляет целое число; в файл строк число добавляется текстом.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(long value) {
+        if (type == DataType.STRING) {
+            write(Long.toString(value));
+            return;
+        }
+        addKey(type == DataType.FLOAT ? toKey((double) value) : value);
+    }
+
+    /**
+     * Добавляет вещественное число; в файл строк число добавляется текстом.
+     *
+     * @param value записываемое число
+     */
+    @Override
+    public void write(double value) {
+        if (type == DataType.STRING) {
+            write(Double.toString(value));
+            return;
+        }
+        addKey(type == DataType.FLOAT ? toKey(value) : (long) value);
+    }
+
+    /**
+     * Упорядоченные данные записываются только при закрытии, поэтому сброс ничего не делает.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Сливает серии и данные из памяти в выходной файл, удаляет временные файлы, закрывает выходной файл
+     * и выводит в консоль ошибку, если она возникла.
+     */
+    @Override
+    public void close() {
+        try {
+            if (error == null) {
+                if (runs.isEmpty()) {
+                    writeSorted();
+                } else {
+                    if (used > 0) spill();
+                    if (error == null) mergeRuns();
+                }
+            }
+        } catch (IOException e) {
+            error = "Не удалось отсортировать данные файла " + fileName + ".";
+        } finally {
+            keys.clear();
+            strings.clear();
+            used = 0;
+            deleteRuns();
+            target.close();
+        }
+        if (error != null) {
+            console.printError(error);
+            error = null;
+        }
+    }
+
+    /**
+     * Преобразует вещественное число в ключ, порядок которого совпадает с {@link Double#compare}.
+     *
+     * @param value число
+     * @return ключ
+     */
+    static long toKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Преобразует ключ обратно в вещественное число.
+     *
+     * @param key ключ
+     * @return число
+     */
+    static double fromKey(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    /**
+     * Добавляет ключ числа и сбрасывает серию, когда память заполнена.
+     *
+     * @param key ключ числа
+     */
+    private void addKey(long key) {
+        if (error != null) return;
+        keys.add(key);
+        used += Long.BYTES;
+        if (used >= sorting.getMemory()) spill();
+    }
+
+    /**
+     * Сортирует данные из памяти и записывает их во временный файл новой серии.
+     */
+    private void spill() {
+        try {
+            Path run = createRun();
+            try (DataOutputStream out = openRun(run)) {
+                if (type == DataType.STRING) {
+                    strings.sort(null);
+                    emitStrings(line -> writeString(out, line));
+                } else {
+                    keys.sort();
+                    emitKeys(out::writeLong);
+                }
+            }
+        } catch (IOException e) {
+            error = "Не удалось сохранить временные данные сортировки файла " + fileName + ".";
+        }
+        keys.clear();
+        strings.clear();
+        used = 0;
+    }
+
+    /**
+     * Сортирует данные из памяти и записывает их в выходной файл.
+     *
+     * @throws IOException не выбрасывается: ошибки записи запоминает писатель выходного файла
+     */
+    private void writeSorted() throws IOException {
+        if (type == DataType.STRING) {
+            strings.sort(null);
+            emitStrings(target::write);
+        } else {
+            keys.sort();
+            emitKeys(this::writeTarget);
+        }
+    }
+
+    /**
+     * Передает отсортированные строки из памяти, пропуская повторы, если они удаляются.
+     *
+     * @param output получатель строк
+     * @throws IOException при ошибке записи
+     */
+    private void emitStrings(StringOutput output) throws IOException {
+        String last = null;
+        for (String line : strings) {
+            if (sorting.isUnique() && line.equals(last)) continue;
+            output.write(line);
+            last = line;
+        }
+    }
+
+    /**
+     * Передает отсортированные ключи из памяти, пропуская повторы, если они удаляются.
+     *
+     * @param output получатель ключей
+     * @throws IOException при ошибке записи
+     */
+    private void emitKeys(KeyOutput output) throws IOException {
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            if (sorting.isUnique() && i > 0 && key == keys.get(i - 1)) continue;
+            output.write(key);
+        }
+    }
+
+    /**
+     * Сливает серии в выходной файл, предварительно сливая их группами, если серий слишком много.
+     *
+     * @throws IOException при ошибке чтения или записи временных файлов
+     */
+    private void mergeRuns() throws IOException {
+        while (runs.size() > MERGE_FAN_IN) {
+            List<Path> group = new ArrayList<>(runs.subList(0, MERGE_FAN_IN));
+            runs.subList(0, MERGE_FAN_IN).clear();
+            Path merged = createRun();
+            try (DataOutputStream out = openRun(merged)) {
+                if (type == DataType.STRING) {
+                    mergeStrings(group, line -> writeString(out, line));
+                } else {
+                    mergeKeys(group, out::writeLong);
+                }
+            }
+            for (Path run : group) {
+                Files.deleteIfExists(run);
+            }
+        }
+        if (type == DataType.STRING) {
+            mergeStrings(runs, target::write);
+        } else {
+            mergeKeys(runs, this::writeTarget);
+        }
+    }
+
+    /**
+     * Сливает серии ключей, передавая ключи по возрастанию.
+     *
+     * @param group  серии
+     * @param output получатель ключей
+     * @throws IOException при ошибке чтения или записи
+     */
+    private void mergeKeys(List<Path> group, KeyOutput output) throws IOException {
+        List<KeyRun> opened = new ArrayList<>();
+        try {
+            PriorityQueue<KeyRun> queue = new PriorityQueue<>((a, b) -> Long.compare(a.key, b.key));
+            for (Path path : group) {
+                KeyRun run = new KeyRun(openRunInput(path));
+                opened.add(run);
+                if (run.next()) queue.add(run);
+            }
+            boolean first = true;
+            long last = 0;
+            while (!queue.isEmpty()) {
+                KeyRun run = queue.poll();
+                if (!sorting.isUnique() || first || run.key != last) {
+                    output.write(run.key);
+                    last = run.key;
+                    first = false;
+                }
+                if (run.next()) queue.add(run);
+            }
+        } finally {
+            for (KeyRun run : opened) {
+                run.in.close();
+            }
+        }
+    }
+
+    /**
+     * Сливает серии строк, передавая строки в лексикографическом порядке.
+     *
+     * @param group  серии
+     * @param output получатель строк
+     * @throws IOException при ошибке чтения или записи
+     */
+    private void mergeStrings(List<Path> group, StringOutput output) throws IOException {
+        List<StringRun> opened = new ArrayList<>();
+        try {
+            PriorityQueue<StringRun> queue = new PriorityQueue<>((a, b) -> a.line.compareTo(b.line));
+            for (Path path : group) {
+                StringRun run = new StringRun(openRunInput(path));
+                opened.add(run);
+                if (run.next()) queue.add(run);
+            }
+            String last = null;
+            while (!queue.isEmpty()) {
+                StringRun run = queue.poll();
+                if (!sorting.isUnique() || !run.line.equals(last)) {
+                    output.write(run.line);
+                    last = run.line;
+                }
+                if (run.next()) queue.add(run);
+            }
+        } finally {
+            for (StringRun run : opened) {
+                run.in.close();
+            }
+        }
+    }
+
+    /**
+     * Записывает число с заданным ключом в выходной файл.
+     *
+     * @param key ключ числа
+     */
+    private void writeTarget(long key) {
+        if (type == DataType.FLOAT) {
+            target.write(fromKey(key));
+        } else {
+            target.write(key);
+        }
+    }
+
+    /**
+     * Создает временный файл новой серии.
+     *
+     * @return путь к файлу серии
+     * @throws IOException при невозможности создать файл
+     */
+    private Path createRun() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory(sorting.getDirectory(), "shifttesttask-sort");
+        }
+        Path run = Files.createTempFile(directory, "run", ".tmp");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Открывает файл серии для записи.
+     *
+     * @param run путь к файлу серии
+     * @return поток записи
+     * @throws IOException при невозможности открыть файл
+     */
+    private static DataOutputStream openRun(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE));
+    }
+
+    /**
+     * Открывает файл серии для чтения.
+     *
+     * @param run путь к файлу серии
+     * @return поток чтения
+     * @throws IOException при невозможности открыть файл
+     */
+    private static DataInputStream openRunInput(Path run) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_SIZE));
+    }
+
+    /**
+     * Записывает строку в серию: длину в байтах и байты в кодировке UTF-8.
+     *
+     * @param out  поток записи серии
+     * @param line строка
+     * @throws IOException при ошибке записи
+     */
+    private static void writeString(DataOutputStream out, String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Удаляет временные файлы серий и их директорию.
+     */
+    private void deleteRuns() {
+        try {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            if (directory != null) Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            console.printError("Не удалось удалить временные файлы сортировки в " + directory + ".");
+        }
+        runs.clear();
+        directory = null;
+    }
+
+    /**
+     * Получатель ключей чисел.
+     */
+    @FunctionalInterface
+    private interface KeyOutput {
+        void write(long key) throws IOException;
+    }
+
+    /**
+     * Получатель строк.
+     */
+    @FunctionalInterface
+    private interface StringOutput {
+        void write(String line) throws IOException;
+    }
+
+    /**
+     * Читаемая серия ключей с текущим ключом.
+     */
+    private static class KeyRun {
+        //Поток чтения серии
+        private final DataInputStream in;
+        //Текущий ключ
+        private long key;
+
+        private KeyRun(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Читает следующий ключ.
+         *
+         * @return {@code false}, если серия закончилась
+         * @throws IOException при ошибке чтения
+         */
+        private boolean next() throws IOException {
+            try {
+                key = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Читаемая серия строк с текущей строкой.
+     */
+    private static class StringRun {
+        //Поток чтения серии
+        private final DataInputStream in;
+        //Текущая строка
+        private String line;
+
+        private StringRun(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Читает следующую строку.
+         *
+         * @return {@code false}, если серия закончилась
+         * @throws IOException при ошибке чтения
+         */
+        private boolean next() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            line = new String(bytes, StandardCharsets.UTF_8);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package Managers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Источник входных строк: файл, поток или буфер в памяти.
+ * Строки всех источников декодируются в кодировке по умолчанию, как и строки входных файлов.
+ * Файлы с расширением {@code .gz} распаковываются по мере чтения; поток и буфер читаются как есть.
+ * <p>
+ * Поток читается один раз и закрывается после чтения, файл и буфер можно читать повторно.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class Source {
+    //Название источника для сообщений и показателей
+    private final String name;
+    //Размер источника в байтах; -1 для файла, размер которого определяется при запросе
+    private final long size;
+    //Способ открытия источника
+    private final Opener opener;
+
+    /**
+     * Создает источник.
+     *
+     * @param name   название источника
+     * @param size   размер источника в байтах; -1 для файла
+     * @param opener способ открытия источника
+     */
+    private Source(String name, long size, Opener opener) {
+        this.name = name;
+        this.size = size;
+        this.opener = opener;
+    }
+
+    /**
+     * Создает источник, читающий файл.
+     *
+     * @param fileName название файла
+     * @return источник
+     */
+    public static Source of(String fileName) {
+        return new Source(fileName, -1, () -> {
+            if (!new File(fileName).exists()) throw new NoSuchFileException(fileName);
+            return FileManager.openInput(fileName);
+        });
+    }
+
+    /**
+     * Создает источник, читающий файл.
+     *
+     * @param file путь к файлу
+     * @return источник
+     */
+    public static Source of(Path file) {
+        return of(file.toString());
+    }
+
+    /**
+     * Создает источник, читающий поток до конца.
+     *
+     * @param name название источника для сообщений и показателей
+     * @param in   поток
+     * @return источник
+     */
+    public static Source of(String name, InputStream in) {
+        return new Source(name, 0, () -> new BufferedReader(new InputStreamReader(in, Charset.defaultCharset())));
+    }
+
+    /**
+     * Создает источник, читающий оставшиеся байты буфера. Позиция переданного буфера не меняется.
+     *
+     * @param name   название источника для сообщений и показателей
+     * @param buffer буфер
+     * @return источник
+     */
+    public static Source of(String name, ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.duplicate();
+        return new Source(name, bytes.remaining(), () -> new BufferedReader(
+                new InputStreamReader(new BufferInputStream(bytes.duplicate()), Charset.defaultCharset())));
+    }
+
+    /**
+     * @return название источника
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return размер источника в байтах: размер файла, оставшиеся байты буфера или 0 для потока
+     */
+    long getSize() {
+        return size >= 0 ? size : new File(name).length();
+    }
+
+    /**
+     * Открывает источник для построчного чтения.
+     *
+     * @return читатель строк
+     * @throws NoSuchFileException если файла не существует
+     * @throws IOException         при невозможности открыть источник
+     */
+    BufferedReader open() throws IOException {
+        return opener.open();
+    }
+
+    /**
+     * Способ открытия источника.
+     */
+    @FunctionalInterface
+    private interface Opener {
+        BufferedReader open() throws IOException;
+    }
+
+    /**
+     * Поток чтения оставшихся байтов буфера.
+     */
+    private static class BufferInputStream extends InputStream {
+        //Читаемый буфер
+        private final ByteBuffer buffer;
+
+        /**
+         * Создает поток чтения буфера.
+         *
+         * @param buffer буфер, позиция которого сдвигается при чтении
+         */
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
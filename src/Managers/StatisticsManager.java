@@ -1,5 +1,14 @@
 package Managers;
 
+import Buffers.DoubleColumn;
+import Buffers.LineArena;
+import Buffers.LongColumn;
+import Statistics.FloatStats;
+import Statistics.HeavyHitters;
+import Statistics.IntegerStats;
+import Statistics.QuantileSketch;
+import Statistics.StringStats;
+
 import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.util.BitSet;
@@ -9,17 +18,25 @@ import java.util.OptionalLong;
 /**
  * Предназначен для ведения статистики.
  * Обеспечивает методы для получения полной и краткой статистики по числовым и строковым данным.
+ * <p>
+ * Статистики из пакета {@code Statistics}, накопленные по разным файлам или в разных потоках,
+ * объединяются их методами {@code combine}, поэтому итог не требует повторного прохода по данным.
  *
  * @author Andrew Schmunk
  * @version 1.0
  */
 public class StatisticsManager {
+    //Количество интервалов гистограммы распределения чисел
+    private static final int HISTOGRAM_BINS = 10;
+    //Наибольшая длина выводимой частой строки
+    private static final int MAX_SHOWN_LENGTH = 80;
+
     private static StatisticsManager instance;
 
     private StatisticsManager() {
     }
 
-    public static StatisticsManager getInstance() {
+    public static synchronized StatisticsManager getInstance() {
         if (instance == null) {
             instance = new StatisticsManager();
         }
@@ -34,29 +51,24 @@ public class StatisticsManager {
      * @return строка с полной статистикой по введенным вещественным числам
      */
     public String getFullFloatsStatistics(List<Double> numbers) {
-        if (numbers.isEmpty()) return "";
-        double minNumber = numbers.stream().mapToDouble(Number::doubleValue).min().orElse(Double.NaN);
-        double maxNumber = numbers.stream().mapToDouble(Number::doubleValue).max().orElse(Double.NaN);
-        double sumNumber = numbers.stream().mapToDouble(Number::doubleValue).sum();
-        double avgNumber = sumNumber / numbers.size();
-        StringBuilder sb = new StringBuilder();
-        sb.append("\u001B[32;1mСтатистика по вещественным числам:\n");
-        sb.append("Количество чисел: ");
-        sb.append(numbers.size());
-        sb.append("\n");
-        sb.append("Минимальное число: ");
-        sb.append(minNumber);
-        sb.append("\n");
-        sb.append("Максимальное число: ");
-        sb.append(maxNumber);
-        sb.append("\n");
-        sb.append("Сумма чисел: ");
-        sb.append(sumNumber);
-        sb.append("\n");
-        sb.append("Среднее арифметическое: ");
-        sb.append(avgNumber);
-        sb.append("\n\n\u001B[0m");
-        return sb.toString();
+        FloatStats stats = new FloatStats();
+        for (Double number : numbers) {
+            stats.add(number);
+        }
+        return getFullFloatsStatistics(stats);
+    }
+
+    /**
+     * Метод вызывается для получения полной статистики по вещественным числам,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по вещественным числам
+     * @return строка с полной статистикой по вещественным числам
+     */
+    public String getFullFloatsStatistics(FloatStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatFullNumberStatistics("Статистика по вещественным числам:\n",
+                stats.getCount(), stats.getMin(), stats.getMax(), stats.getSum(), stats.getAverage());
     }
 
     /**
@@ -67,17 +79,72 @@ public class StatisticsManager {
      * @return строка с полной статистикой по введенным вещественным числам
      */
     public String getFullIntegersStatistics(List<BigInteger> numbers) {
-        if (numbers.isEmpty()) return "";
-        BigInteger minNumber = numbers.stream().min(BigInteger::compareTo).orElse(BigInteger.ZERO);
-        BigInteger maxNumber = numbers.stream().max(BigInteger::compareTo).orElse(BigInteger.ZERO);
-        BigInteger sumNumber = numbers.stream().reduce(BigInteger.ZERO, BigInteger::add);
-        double avgNumber = sumNumber.divide(BigInteger.valueOf(numbers.size())).doubleValue();
+        IntegerStats stats = new IntegerStats();
+        for (BigInteger number : numbers) {
+            stats.add(number);
+        }
+        return getFullIntegersStatistics(stats);
+    }
 
+    /**
+     * Метод вызывается для получения полной статистики по целым числам,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по целым числам
+     * @return строка с полной статистикой по целым числам
+     */
+    public String getFullIntegersStatistics(IntegerStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatFullNumberStatistics("Статистика по целым числам:\n",
+                stats.getCount(), stats.getMin(), stats.getMax(), stats.getSum(), stats.getAverage());
+    }
+
+    /**
+     * Метод вызывается для получения полной статистики по целым числам, хранящимся в массиве {@code long}.
+     *
+     * @param numbers массив входных целых чисел
+     * @return строка с полной статистикой по введенным целым числам
+     */
+    public String getFullIntegersStatistics(LongColumn numbers) {
+        IntegerStats stats = new IntegerStats();
+        for (int i = 0; i < numbers.size(); i++) {
+            stats.add(numbers.get(i));
+        }
+        return getFullIntegersStatistics(stats);
+    }
+
+    /**
+     * Метод вызывается для получения полной статистики по вещественным числам, хранящимся в массиве {@code double}.
+     *
+     * @param numbers массив входных вещественных чисел
+     * @return строка с полной статистикой по введенным вещественным числам
+     */
+    public String getFullFloatsStatistics(DoubleColumn numbers) {
+        FloatStats stats = new FloatStats();
+        for (int i = 0; i < numbers.size(); i++) {
+            stats.add(numbers.get(i));
+        }
+        return getFullFloatsStatistics(stats);
+    }
 
+    /**
+     * Формирует строку с полной статистикой по числовым данным.
+     *
+     * @param title     заголовок статистики
+     * @param count     количество чисел
+     * @param minNumber минимальное число
+     * @param maxNumber максимальное число
+     * @param sumNumber сумма чисел
+     * @param avgNumber среднее арифметическое
+     * @return строка с полной статистикой
+     */
+    private String formatFullNumberStatistics(String title, long count, Object minNumber, Object maxNumber,
+                                              Object sumNumber, double avgNumber) {
         StringBuilder sb = new StringBuilder();
-        sb.append("\u001B[32;1mСтатистика по целым числам:\n");
+        sb.append("\u001B[32;1m");
+        sb.append(title);
         sb.append("Количество чисел: ");
-        sb.append(numbers.size());
+        sb.append(count);
         sb.append("\n");
         sb.append("Минимальное число: ");
         sb.append(minNumber);
@@ -116,6 +183,192 @@ public class StatisticsManager {
         return sb.toString();
     }
 
+    /**
+     * Метод вызывается для получения краткой статистики по целым числам,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по целым числам
+     * @return строка с краткой статистикой по целым числам
+     */
+    public String getShortNumberStatistics(IntegerStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatShortNumberStatistics("Статистика по целым числам:\n", stats.getCount());
+    }
+
+    /**
+     * Метод вызывается для получения краткой статистики по вещественным числам,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по вещественным числам
+     * @return строка с краткой статистикой по вещественным числам
+     */
+    public String getShortNumberStatistics(FloatStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatShortNumberStatistics("Статистика по вещественным числам:\n", stats.getCount());
+    }
+
+    /**
+     * Метод вызывается для получения краткой статистики по целым числам, хранящимся в массиве {@code long}.
+     *
+     * @param numbers массив входных целых чисел
+     * @return строка с краткой статистикой по введенным целым числам
+     */
+    public String getShortNumberStatistics(LongColumn numbers) {
+        if (numbers.isEmpty()) return "";
+        return formatShortNumberStatistics("Статистика по целым числам:\n", numbers.size());
+    }
+
+    /**
+     * Метод вызывается для получения краткой статистики по вещественным числам, хранящимся в массиве {@code double}.
+     *
+     * @param numbers массив входных вещественных чисел
+     * @return строка с краткой статистикой по введенным вещественным числам
+     */
+    public String getShortNumberStatistics(DoubleColumn numbers) {
+        if (numbers.isEmpty()) return "";
+        return formatShortNumberStatistics("Статистика по вещественным числам:\n", numbers.size());
+    }
+
+    /**
+     * Формирует строку с краткой статистикой по числовым данным.
+     *
+     * @param title заголовок статистики
+     * @param count количество чисел
+     * @return строка с краткой статистикой
+     */
+    private String formatShortNumberStatistics(String title, long count) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\u001B[32;1m");
+        sb.append(title);
+        sb.append("Количество чисел: ");
+        sb.append(count);
+        sb.append("\n\n\u001B[0m");
+        return sb.toString();
+    }
+
+    /**
+     * Метод вызывается для получения распределения целых чисел, накопленного за один проход по данным.
+     * Распределение включает квантили p50, p95, p99 и гистограмму, вычисленные с погрешностью
+     * {@link QuantileSketch#RELATIVE_ACCURACY}.
+     *
+     * @param stats накопленная статистика по целым числам
+     * @return строка с распределением целых чисел или пустая строка, если квантили не подсчитывались
+     */
+    public String getQuantileIntegersStatistics(IntegerStats stats) {
+        if (stats.isEmpty() || stats.getSketch() == null) return "";
+        return formatQuantileStatistics("Распределение целых чисел:\n", stats.getSketch(), true);
+    }
+
+    /**
+     * Метод вызывается для получения распределения вещественных чисел, накопленного за один проход по данным.
+     *
+     * @param stats накопленная статистика по вещественным числам
+     * @return строка с распределением вещественных чисел или пустая строка, если квантили не подсчитывались
+     */
+    public String getQuantileFloatsStatistics(FloatStats stats) {
+        if (stats.isEmpty() || stats.getSketch() == null) return "";
+        return formatQuantileStatistics("Распределение вещественных чисел:\n", stats.getSketch(), false);
+    }
+
+    /**
+     * Метод вызывается для получения распределения целых чисел, хранящихся в массиве {@code long}.
+     *
+     * @param numbers массив входных целых чисел
+     * @return строка с распределением введенных целых чисел
+     */
+    public String getQuantileIntegersStatistics(LongColumn numbers) {
+        IntegerStats stats = new IntegerStats(true);
+        for (int i = 0; i < numbers.size(); i++) {
+            stats.add(numbers.get(i));
+        }
+        return getQuantileIntegersStatistics(stats);
+    }
+
+    /**
+     * Метод вызывается для получения распределения вещественных чисел, хранящихся в массиве {@code double}.
+     *
+     * @param numbers массив входных вещественных чисел
+     * @return строка с распределением введенных вещественных чисел
+     */
+    public String getQuantileFloatsStatistics(DoubleColumn numbers) {
+        FloatStats stats = new FloatStats(true);
+        for (int i = 0; i < numbers.size(); i++) {
+            stats.add(numbers.get(i));
+        }
+        return getQuantileFloatsStatistics(stats);
+    }
+
+    /**
+     * Формирует строку с квантилями и гистограммой распределения чисел.
+     * Гистограмма делит диапазон от минимального до максимального числа на {@value #HISTOGRAM_BINS}
+     * интервалов равной ширины; для целых чисел, различающихся меньше, интервалов столько, сколько различных значений.
+     *
+     * @param title    заголовок статистики
+     * @param sketch   распределение чисел
+     * @param integers флаг целых чисел: квантили и границы интервалов округляются до целых
+     * @return строка с распределением
+     */
+    private String formatQuantileStatistics(String title, QuantileSketch sketch, boolean integers) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\u001B[32;1m");
+        sb.append(title);
+        for (int percent : new int[]{50, 95, 99}) {
+            sb.append("p").append(percent).append(": ");
+            appendNumber(sb, sketch.getQuantile(percent / 100.0), integers);
+            sb.append("\n");
+        }
+        double lower = sketch.getMin();
+        double upper = sketch.getMax();
+        if (Double.isFinite(lower) && Double.isFinite(upper)) {
+            int bins = HISTOGRAM_BINS;
+            if (integers) {
+                // Интервалы целых чисел полуоткрытые, поэтому верхняя граница - следующее за максимумом число
+                upper += 1;
+                bins = (int) Math.min(bins, upper - lower);
+            }
+            long[] histogram = sketch.getHistogram(lower, upper, bins);
+            sb.append("Гистограмма:\n");
+            for (int i = 0; i < bins; i++) {
+                sb.append("[");
+                appendBound(sb, lower + (upper - lower) * i / bins, integers);
+                sb.append("; ");
+                appendBound(sb, i + 1 == bins ? upper : lower + (upper - lower) * (i + 1) / bins, integers);
+                sb.append(!integers && i + 1 == bins ? "]: " : "): ");
+                sb.append(histogram[i]);
+                sb.append("\n");
+            }
+        }
+        sb.append("\n\u001B[0m");
+        return sb.toString();
+    }
+
+    /**
+     * Добавляет число в строку, округляя его до целого при необходимости.
+     *
+     * @param sb      строка
+     * @param number  число
+     * @param integer флаг округления до целого
+     */
+    private void appendNumber(StringBuilder sb, double number, boolean integer) {
+        if (integer && Double.isFinite(number)) {
+            sb.append(Math.round(number));
+        } else {
+            sb.append(number);
+        }
+    }
+
+    /**
+     * Добавляет в строку границу интервала гистограммы.
+     * Для целых чисел граница заменяется наименьшим целым, не меньшим ее, чтобы интервал включал те же числа.
+     *
+     * @param sb      строка
+     * @param bound   граница интервала
+     * @param integer флаг целых чисел
+     */
+    private void appendBound(StringBuilder sb, double bound, boolean integer) {
+        appendNumber(sb, integer ? Math.ceil(bound) : bound, integer);
+    }
+
     /**
      * Метод вызывается для получения полной статистики по строковым данным.
      * Статистика включает в себя количество строк, длину самой короткой и самой длинной строки.
@@ -124,11 +377,118 @@ public class StatisticsManager {
      * @return строка с полной статистикой по введенным строковым данным
      */
     public String getFullStringStatistics(List<String> strings) {
-        if (strings.isEmpty()) return "";
-        int minLengthString = strings.stream().mapToInt(String::length).min().orElse(0);
-        int maxLengthString = strings.stream().mapToInt(String::length).max().orElse(0);
-        int countString = strings.size();
+        StringStats stats = new StringStats();
+        for (String string : strings) {
+            stats.add(string.length());
+        }
+        return getFullStringStatistics(stats);
+    }
+
+    /**
+     * Метод вызывается для получения полной статистики по строкам хранилища.
+     * Длины строк берутся из хранилища, поэтому строки не декодируются.
+     *
+     * @param strings хранилище входных строковых данных
+     * @return строка с полной статистикой по введенным строковым данным
+     */
+    public String getFullStringStatistics(LineArena strings) {
+        StringStats stats = new StringStats();
+        for (int i = 0; i < strings.size(); i++) {
+            stats.add(strings.length(i));
+        }
+        return getFullStringStatistics(stats);
+    }
+
+    /**
+     * Метод вызывается для получения полной статистики по строковым данным,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по строкам
+     * @return строка с полной статистикой по строковым данным
+     */
+    public String getFullStringStatistics(StringStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatFullStringStatistics(stats.getCount(), stats.getMinLength(), stats.getMaxLength());
+    }
+
+    /**
+     * Метод вызывается для получения приближенного количества различных строк и самых частых строк,
+     * накопленных за один проход по данным.
+     *
+     * @param stats накопленная статистика по строкам
+     * @param top   количество выводимых самых частых строк
+     * @return строка со статистикой уникальных строк или пустая строка, если уникальные строки не подсчитывались
+     */
+    public String getDistinctStringStatistics(StringStats stats, int top) {
+        if (stats.isEmpty() || !stats.isCountingDistinct()) return "";
+        StringBuilder sb = new StringBuilder();
+        sb.append("\u001B[32;1m");
+        sb.append("Уникальные строки:\n");
+        sb.append("Количество различных строк: ");
+        sb.append(stats.getDistinct().getEstimate());
+        sb.append(String.format(" (погрешность около %.1f%%)", stats.getDistinct().getStandardError() * 100));
+        sb.append("\n");
+        sb.append("Самые частые строки:\n");
+        for (HeavyHitters.Entry entry : stats.getHeavyHitters().getTop(top)) {
+            sb.append("\"");
+            String line = entry.getLine();
+            sb.append(line.length() > MAX_SHOWN_LENGTH ? line.substring(0, MAX_SHOWN_LENGTH) + "..." : line);
+            sb.append("\": ");
+            sb.append(entry.getCount());
+            if (entry.getError() > 0) {
+                sb.append(" (не меньше ");
+                sb.append(entry.getCount() - entry.getError());
+                sb.append(")");
+            }
+            sb.append("\n");
+        }
+        sb.append("\n\u001B[0m");
+        return sb.toString();
+    }
+
+    /**
+     * Метод вызывается для получения приближенного количества различных строк и самых частых строк из списка.
+     *
+     * @param strings   список входных строковых данных
+     * @param precision точность счетчика различных строк
+     * @param capacity  наибольшее количество хранимых частых строк
+     * @param top       количество выводимых самых частых строк
+     * @return строка со статистикой уникальных строк
+     */
+    public String getDistinctStringStatistics(List<String> strings, int precision, int capacity, int top) {
+        StringStats stats = new StringStats(precision, capacity);
+        for (String string : strings) {
+            stats.add(string);
+        }
+        return getDistinctStringStatistics(stats, top);
+    }
+
+    /**
+     * Метод вызывается для получения приближенного количества различных строк и самых частых строк хранилища.
+     *
+     * @param strings   хранилище входных строковых данных
+     * @param precision точность счетчика различных строк
+     * @param capacity  наибольшее количество хранимых частых строк
+     * @param top       количество выводимых самых частых строк
+     * @return строка со статистикой уникальных строк
+     */
+    public String getDistinctStringStatistics(LineArena strings, int precision, int capacity, int top) {
+        StringStats stats = new StringStats(precision, capacity);
+        for (int i = 0; i < strings.size(); i++) {
+            stats.add(strings.get(i));
+        }
+        return getDistinctStringStatistics(stats, top);
+    }
 
+    /**
+     * Формирует строку с полной статистикой по строковым данным.
+     *
+     * @param countString     количество строк
+     * @param minLengthString длина самой короткой строки
+     * @param maxLengthString длина самой длинной строки
+     * @return строка с полной статистикой
+     */
+    private String formatFullStringStatistics(long countString, int minLengthString, int maxLengthString) {
         StringBuilder sb = new StringBuilder();
         sb.append("\u001B[32;1m");
         sb.append("Статистика по строкам:\n");
@@ -153,11 +513,44 @@ public class StatisticsManager {
      */
     public String getShortStringStatistics(List<String> strings) {
         if (strings.isEmpty()) return "";
+        return formatShortStringStatistics(strings.size());
+    }
+
+    /**
+     * Метод вызывается для получения краткой статистики по строкам хранилища.
+     *
+     * @param strings хранилище входных строковых данных
+     * @return строка с краткой статистикой по введенным строковым данным
+     */
+    public String getShortStringStatistics(LineArena strings) {
+        if (strings.isEmpty()) return "";
+        return formatShortStringStatistics(strings.size());
+    }
+
+    /**
+     * Метод вызывается для получения краткой статистики по строковым данным,
+     * накопленной за один проход по данным.
+     *
+     * @param stats накопленная статистика по строкам
+     * @return строка с краткой статистикой по строковым данным
+     */
+    public String getShortStringStatistics(StringStats stats) {
+        if (stats.isEmpty()) return "";
+        return formatShortStringStatistics(stats.getCount());
+    }
+
+    /**
+     * Формирует строку с краткой статистикой по строковым данным.
+     *
+     * @param countString количество строк
+     * @return строка с краткой статистикой
+     */
+    private String formatShortStringStatistics(long countString) {
         StringBuilder sb = new StringBuilder();
         sb.append("\u001B[32;1m");
         sb.append("Статистика по строкам:\n");
         sb.append("Количество строк: ");
-        sb.append(strings.size());
+        sb.append(countString);
         sb.append("\n\n\u001B[0m");
         return sb.toString();
     }
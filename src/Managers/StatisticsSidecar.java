@@ -0,0 +1,293 @@
+package Managers;
+
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+import Utility.Console;
+import Utility.DataType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Предназначен для хранения накопленной статистики выходного файла в двоичном файле рядом с ним.
+ * При дописывании в выходной файл статистика загружается, дополняется новыми данными и сохраняется снова,
+ * поэтому накопленная статистика обходится чтением только новых данных.
+ * Вместе со статистикой сохраняется размер выходного файла: если файл статистики отсутствует, поврежден,
+ * не соответствует выходному файлу или собран с другими ключами, статистика один раз пересчитывается
+ * по содержимому выходного файла.
+ * <p>
+ * В выходной файл одновременно могут дописывать другие запуски. Поэтому сохраняется не текущий размер файла,
+ * а размер, до которого дописан учтенный статистикой текст: писатели этого запуска сообщают размер файла
+ * перед каждой своей порцией под той же блокировкой, под которой ее дописывают. Если перед порцией файл
+ * оказался длиннее ожидаемого, в нем есть строки, которых статистика не видела, и она не сохраняется;
+ * следующий запуск увидит несовпадение размера и пересчитает статистику.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class StatisticsSidecar {
+    //Расширение файла статистики
+    public static final String EXTENSION = ".stats";
+    //Признак и версия формата файла статистики
+    private static final int MAGIC = 0x53544154;
+    private static final int VERSION = 1;
+
+    //Консоль для вывода ошибок
+    private final Console console;
+    //Выходной файл
+    private final Path output;
+    //Файл статистики
+    private final Path sidecar;
+    //Флаг дописывания в конец выходного файла
+    private final boolean append;
+    //Размер выходного файла, до которого дописан учтенный статистикой текст; -1, если файл перезаписывается
+    private long expectedSize = -1;
+    //Флаг выходного файла, в который дописывал кто-то еще после загрузки статистики
+    private boolean stale = false;
+
+    /**
+     * Создает хранилище статистики выходного файла.
+     *
+     * @param console консоль
+     * @param file    путь к выходному файлу
+     * @param append  флаг дописывания в конец выходного файла
+     */
+    StatisticsSidecar(Console console, String file, boolean append) {
+        this.console = console;
+        this.output = Path.of(file);
+        this.sidecar = Path.of(file + EXTENSION);
+        this.append = append;
+    }
+
+    /**
+     * @return путь к выходному файлу
+     */
+    Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Загружает накопленную статистику по целым числам.
+     *
+     * @param quantiles флаг подсчета квантилей
+     * @return накопленная статистика или пустая, если выходной файл перезаписывается
+     */
+    public IntegerStats loadIntegers(boolean quantiles) {
+        return load(DataType.INTEGER, IntegerStats::readFrom,
+                stats -> (stats.getSketch() != null) == quantiles,
+                () -> new IntegerStats(quantiles),
+                (stats, line) -> stats.add(Long.parseLong(line)),
+                (stats, reader) -> stats.add(reader.nextLong()));
+    }
+
+    /**
+     * Загружает накопленную статистику по вещественным числам.
+     *
+     * @param quantiles флаг подсчета квантилей
+     * @return накопленная статистика или пустая, если выходной файл перезаписывается
+     */
+    public FloatStats loadFloats(boolean quantiles) {
+        return load(DataType.FLOAT, FloatStats::readFrom,
+                stats -> (stats.getSketch() != null) == quantiles,
+                () -> new FloatStats(quantiles),
+                (stats, line) -> stats.add(Double.parseDouble(line)),
+                (stats, reader) -> stats.add(reader.nextDouble()));
+    }
+
+    /**
+     * Загружает накопленную статистику по строкам.
+     *
+     * @param distinct  флаг подсчета уникальных строк
+     * @param precision точность счетчика различных строк
+     * @param capacity  наибольшее количество хранимых частых строк
+     * @return накопленная статистика или пустая, если выходной файл перезаписывается
+     */
+    public StringStats loadStrings(boolean distinct, int precision, int capacity) {
+        return load(DataType.STRING, in -> StringStats.readFrom(in, capacity),
+                stats -> stats.isCountingDistinct() == distinct
+                        && (!distinct || stats.getDistinct().getPrecision() == precision),
+                () -> distinct ? new StringStats(precision, capacity) : new StringStats(),
+                StringStats::add, null);
+    }
+
+    /**
+     * Сохраняет накопленную статистику по целым числам.
+     *
+     * @param stats статистика
+     */
+    public void save(IntegerStats stats) {
+        save(DataType.INTEGER, stats.getCount(), stats::writeTo);
+    }
+
+    /**
+     * Сохраняет накопленную статистику по вещественным числам.
+     *
+     * @param stats статистика
+     */
+    public void save(FloatStats stats) {
+        save(DataType.FLOAT, stats.getCount(), stats::writeTo);
+    }
+
+    /**
+     * Сохраняет накопленную статистику по строкам.
+     *
+     * @param stats статистика
+     */
+    public void save(StringStats stats) {
+        save(DataType.STRING, stats.getCount(), stats::writeTo);
+    }
+
+    /**
+     * Загружает статистику из файла статистики, а если он непригоден - пересчитывает ее по выходному файлу.
+     *
+     * @param type       тип данных выходного файла
+     * @param reader     чтение статистики
+     * @param compatible проверка, что статистика собрана с теми же ключами
+     * @param empty      создание пустой статистики
+     * @param addLine    учет строки выходного файла в статистике
+     * @param addValue   учет очередного числа двоичного выходного файла в статистике
+     * @param <T>        тип статистики
+     * @return накопленная статистика
+     */
+    private <T> T load(DataType type, StatsReader<T> reader, Predicate<T> compatible, Supplier<T> empty,
+                       BiConsumer<T, String> addLine, ValueReader<T> addValue) {
+        if (!append) return empty.get();
+        if (!Files.isRegularFile(output)) {
+            setExpectedSize(0);
+            return empty.get();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() == MAGIC && in.readByte() == VERSION && in.readByte() == type.ordinal()) {
+                long size = in.readLong();
+                if (size == Files.size(output)) {
+                    T stats = reader.read(in);
+                    if (compatible.test(stats)) {
+                        setExpectedSize(size);
+                        return stats;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // Файл статистики отсутствует или поврежден: пересчитываем статистику по выходному файлу
+        }
+        T stats = empty.get();
+        try {
+            // Файл читается под блокировкой дописывания, чтобы статистика соответствовала его размеру
+            OutputFile.locked(output.toString(), () -> {
+                setExpectedSize(Files.size(output));
+                if (addValue != null && FileManager.isBinary(output.toString())) {
+                    try (BinaryColumnReader in = BinaryColumnReader.open(output.toString())) {
+                        while (in.hasNext()) {
+                            addValue.read(stats, in);
+                        }
+                    }
+                } else {
+                    try (BufferedReader in = FileManager.openInput(output.toString())) {
+                        String line;
+                        while ((line = in.readLine()) != null) {
+                            addLine.accept(stats, line);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (IOException | NumberFormatException e) {
+            console.printError("Не удалось прочитать " + output + ", статистика учитывает только новые данные.");
+            return empty.get();
+        }
+        return stats;
+    }
+
+    /**
+     * Запоминает размер выходного файла, которому соответствует загруженная статистика.
+     *
+     * @param size размер выходного файла
+     */
+    private synchronized void setExpectedSize(long size) {
+        expectedSize = size;
+        stale = false;
+    }
+
+    /**
+     * Учитывает порцию, дописанную в выходной файл писателем этого запуска. Вызывается под блокировкой файла.
+     *
+     * @param size   размер выходного файла перед порцией
+     * @param length размер дописанной порции
+     */
+    synchronized void appended(long size, long length) {
+        if (expectedSize < 0) return;
+        if (size != expectedSize) stale = true;
+        expectedSize = size + length;
+    }
+
+    /**
+     * Сохраняет статистику во временный файл и заменяет им файл статистики.
+     * Если выходной файл перезаписывался, но данных этого типа не было, выходной файл не изменился,
+     * и прежний файл статистики остается в силе. Если в выходной файл дописывал кто-то еще,
+     * статистика не сохраняется, и следующий запуск пересчитает ее по выходному файлу.
+     *
+     * @param type   тип данных выходного файла
+     * @param count  количество учтенных значений
+     * @param writer запись статистики
+     */
+    private void save(DataType type, long count, StatsWriter writer) {
+        if (!append && count == 0 || !Files.isRegularFile(output)) return;
+        long size;
+        synchronized (this) {
+            // В файл дописывал другой запуск: сохраненная статистика не совпала бы с его содержимым
+            if (stale) return;
+            size = expectedSize;
+        }
+        Path temp = Path.of(sidecar + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeByte(type.ordinal());
+                out.writeLong(size >= 0 ? size : Files.size(output));
+                writer.write(out);
+            }
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            console.printError("Не удалось сохранить статистику в " + sidecar + ".");
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Учет очередного числа двоичного выходного файла в статистике.
+     *
+     * @param <T> тип статистики
+     */
+    @FunctionalInterface
+    private interface ValueReader<T> {
+        void read(T stats, BinaryColumnReader reader) throws IOException;
+    }
+
+    /**
+     * Чтение статистики из двоичного потока.
+     *
+     * @param <T> тип статистики
+     */
+    @FunctionalInterface
+    private interface StatsReader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Запись статистики в двоичный поток.
+     */
+    @FunctionalInterface
+    private interface StatsWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,140 @@
+package Server;
+
+import Utility.Console;
+import Utility.Filter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Клиент сервера заданий: передает параметры запуска запущенному {@link JobServer} и печатает его вывод.
+ * Относительные пути входных файлов и пути к выходным файлам дополняются текущей директорией клиента,
+ * так как сервер может быть запущен из другой директории.
+ * <p>
+ * Задания, читающие команды из консоли или собирающие показатели JVM, выполняются без сервера,
+ * как и любое задание с ключом {@code --local}. Задание также выполняется без сервера, если сокет
+ * или его каталог принадлежат другому пользователю.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class JobClient {
+    //Ключи, с которыми задание выполняется без сервера
+    private static final List<String> LOCAL_KEYS = List.of("--local", "--server", "--watch", "--follow",
+            "--metrics", "--jmx");
+
+    //Консоль клиента
+    private final Console console;
+    //Путь к сокету сервера
+    private final Path socket;
+
+    /**
+     * Создает клиент сервера заданий.
+     *
+     * @param console консоль клиента
+     * @param socket  путь к сокету сервера
+     */
+    public JobClient(Console console, Path socket) {
+        this.console = console;
+        this.socket = socket;
+    }
+
+    /**
+     * Передает задание серверу и печатает его вывод по мере выполнения.
+     *
+     * @param parametres параметры запуска программы
+     * @return код завершения задания или -1, если задание нужно выполнить без сервера:
+     * сервер не запущен, сокет принадлежит другому пользователю, параметров больше, чем принимает сервер,
+     * или указан ключ, с которым задание выполняется локально
+     */
+    public int forward(String[] parametres) {
+        if (parametres.length == 0 || !Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) return -1;
+        if (!JobServer.isOwned(socket.getParent()) || !JobServer.isOwned(socket)) return -1;
+        List<String> job;
+        try {
+            job = resolve(parametres);
+        } catch (InvalidPathException e) {
+            return -1;
+        }
+        if (job == null || job.size() > JobServer.MAX_PARAMETRES) return -1;
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException | UnsupportedOperationException e) {
+            return -1;
+        }
+        try (channel;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeInt(job.size());
+            for (String parametre : job) {
+                out.writeUTF(parametre);
+            }
+            out.flush();
+            while (true) {
+                byte kind = in.readByte();
+                if (kind == RemoteConsole.EXIT) return in.readInt();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                if (kind == RemoteConsole.ERROR) {
+                    console.printError(text);
+                } else {
+                    console.print(text);
+                }
+            }
+        } catch (IOException e) {
+            console.printError("соединение с сервером заданий прервано.");
+            return 1;
+        }
+    }
+
+    /**
+     * Дополняет пути в параметрах запуска текущей директорией клиента.
+     * Если путь к выходным файлам не указан, им становится текущая директория.
+     *
+     * @param parametres параметры запуска программы
+     * @return параметры задания или {@code null}, если задание нужно выполнить без сервера
+     * @throws InvalidPathException если параметр не является путем
+     */
+    private List<String> resolve(String[] parametres) {
+        Path directory = Path.of("").toAbsolutePath();
+        List<String> job = new ArrayList<>();
+        boolean output = false;
+        for (int i = 0; i < parametres.length; i++) {
+            String param = parametres[i];
+            if (param.isEmpty() || LOCAL_KEYS.contains(param)) return null;
+            if (param.charAt(0) != '-') {
+                job.add(directory.resolve(param).toString());
+                continue;
+            }
+            job.add(param);
+            if (Filter.VALUE_KEYS.contains(param) && i + 1 < parametres.length) {
+                String value = parametres[++i];
+                if (param.equals("-o")) {
+                    value = directory.resolve(value).toString();
+                    output = true;
+                }
+                job.add(value);
+            }
+        }
+        if (!output) {
+            job.add(0, "-o");
+            job.add(1, directory.toString());
+        }
+        return job;
+    }
+}
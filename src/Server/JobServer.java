@@ -0,0 +1,371 @@
+package Server;
+
+import Exceptions.FilterException;
+import Exceptions.IllegalKeyException;
+import Exceptions.MissingFilesException;
+import Managers.FileManager;
+import Utility.Console;
+import Utility.ConsoleCommands;
+import Utility.Filter;
+import Utility.KeyedLocks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервер заданий: принимает задания с теми же ключами, что и программа, через локальный сокет
+ * и выполняет их в уже прогретой JVM, поэтому запуск и прогрев не повторяются для каждого небольшого файла.
+ * <p>
+ * Задания выполняются одновременно в ограниченном пуле потоков; когда все потоки заняты и очередь заполнена,
+ * новые подключения не принимаются, пока не освободится место. Задания, записывающие в один и тот же
+ * выходной файл, выполняются по очереди, поэтому дописываемые данные не перемешиваются.
+ * Вывод задания, включая статистику и ошибки, передается клиенту {@link JobClient}.
+ * <p>
+ * Сокет создается в отдельном каталоге пользователя внутри каталога временных файлов; каталог и сокет
+ * доступны только владельцу. Клиент и сервер работают с сокетом, только если он и каталог принадлежат
+ * текущему пользователю, поэтому другой пользователь не может подменить сервер, заранее создав сокет.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class JobServer {
+    //Количество заданий в очереди на каждый поток
+    private static final int QUEUE_PER_WORKER = 4;
+    //Наибольшее количество параметров одного задания
+    static final int MAX_PARAMETRES = 1 << 16;
+    //Пауза в миллисекундах между проверками команд консоли
+    private static final long COMMAND_POLL_MILLIS = 200;
+
+    //Консоль сервера
+    private final Console console;
+    //Путь к сокету
+    private final Path socket;
+    //Количество потоков, выполняющих задания
+    private final int workers;
+    //Блокировки выходных файлов по их абсолютным путям
+    private final KeyedLocks<String> outputLocks = new KeyedLocks<>();
+    //Количество выполняемых, выполненных и завершившихся ошибкой заданий
+    private final AtomicLong running = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Создает сервер заданий.
+     *
+     * @param console консоль сервера
+     * @param socket  путь к сокету
+     * @param workers количество потоков, выполняющих задания
+     */
+    public JobServer(Console console, Path socket, int workers) {
+        this.console = console;
+        this.socket = socket;
+        this.workers = workers;
+    }
+
+    /**
+     * Создает сервер по параметрам запуска {@code --server [--workers N]}.
+     * По умолчанию задания выполняются в количестве потоков, равном числу процессоров.
+     *
+     * @param console    консоль сервера
+     * @param parametres параметры запуска программы
+     * @return сервер заданий
+     * @throws IllegalKeyException выбрасывается в случае ввода неизвестного ключа или некорректного количества потоков
+     */
+    public static JobServer create(Console console, String[] parametres) throws IllegalKeyException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < parametres.length; i++) {
+            if (!parametres[i].equals("--workers") || i + 1 == parametres.length) {
+                throw new IllegalKeyException("Введен незнакомый аргумент.");
+            }
+            try {
+                workers = Integer.parseInt(parametres[++i]);
+            } catch (NumberFormatException e) {
+                workers = 0;
+            }
+            if (workers <= 0) throw new IllegalKeyException("Некорректное количество потоков.");
+        }
+        return new JobServer(console, socketPath(), workers);
+    }
+
+    /**
+     * Определяет путь к сокету сервера текущего пользователя.
+     *
+     * @return путь к сокету в каталоге пользователя внутри каталога временных файлов
+     */
+    public static Path socketPath() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "shifttesttask-" + System.getProperty("user.name"),
+                "server.sock");
+    }
+
+    /**
+     * Проверяет, что файл принадлежит текущему пользователю. Символьные ссылки не разыменовываются.
+     *
+     * @param path путь к файлу
+     * @return {@code true}, если файл существует и его владелец - текущий пользователь
+     */
+    static boolean isOwned(Path path) {
+        try {
+            String owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).getName();
+            String user = System.getProperty("user.name");
+            // В Windows имя владельца дополняется именем домена
+            return owner.equals(user) || owner.endsWith("\\" + user);
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Запускает сервер и принимает задания, пока в консоль не введена команда {@code exit}.
+     * Перед завершением сервер дожидается выполнения принятых заданий.
+     *
+     * @throws FilterException если сервер уже запущен или сокет не удалось создать
+     */
+    public void run() {
+        ServerSocketChannel server = open();
+        Thread hook = new Thread(this::deleteSocket, "job-server-cleanup");
+        Runtime.getRuntime().addShutdownHook(hook);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Semaphore slots = new Semaphore(workers * (1 + QUEUE_PER_WORKER));
+        Thread acceptor = new Thread(() -> accept(server, executor, slots), "job-acceptor");
+        acceptor.start();
+        ConsoleCommands commands = new ConsoleCommands(console);
+        commands.start();
+        console.println("Сервер заданий запущен: " + socket + ". Команды: stats - статистика, exit - завершение.");
+        try {
+            while (acceptor.isAlive()) {
+                String command = commands.poll();
+                if (command == null) {
+                    Thread.sleep(COMMAND_POLL_MILLIS);
+                } else if (command.equals("stats")) {
+                    console.println("Заданий выполняется: " + running.get() + ", выполнено: " + completed.get()
+                            + ", с ошибками: " + failed.get());
+                } else if (command.equals("exit")) {
+                    break;
+                } else if (!command.isEmpty()) {
+                    console.printError("неизвестная команда " + command + ".");
+                }
+            }
+            server.close();
+            acceptor.join();
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            console.printError("не удалось закрыть сокет сервера.");
+        }
+        deleteSocket();
+        Runtime.getRuntime().removeShutdownHook(hook);
+        console.println("Сервер заданий остановлен.");
+    }
+
+    /**
+     * Создает сокет сервера. Файл сокета, оставшийся от аварийно завершенного сервера, удаляется.
+     *
+     * @return канал сервера
+     * @throws FilterException если сервер уже запущен, каталог сокета принадлежит другому пользователю
+     *                         или сокет не удалось создать
+     */
+    private ServerSocketChannel open() {
+        createDirectory();
+        if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+            if (isOwned(socket) && isRunning()) {
+                throw new FilterException("сервер заданий уже запущен: " + socket + ".");
+            }
+            deleteSocket();
+        }
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socket));
+            try {
+                Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException ignored) {
+            }
+            return server;
+        } catch (IOException | UnsupportedOperationException e) {
+            throw new FilterException("не удалось создать сокет сервера " + socket + ".");
+        }
+    }
+
+    /**
+     * Создает каталог сокета, доступный только владельцу, или проверяет владельца уже существующего каталога.
+     *
+     * @throws FilterException если каталог принадлежит другому пользователю или его не удалось создать
+     */
+    private void createDirectory() {
+        Path directory = socket.getParent();
+        try {
+            try {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString("rwx------")));
+            } catch (UnsupportedOperationException e) {
+                Files.createDirectory(directory);
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // Каталог создан прежним запуском сервера
+        } catch (IOException e) {
+            throw new FilterException("не удалось создать каталог сокета " + directory + ".");
+        }
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS) || !isOwned(directory)) {
+            throw new FilterException("каталог сокета " + directory + " принадлежит другому пользователю.");
+        }
+        try {
+            Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    /**
+     * Проверяет, принимает ли сокет подключения, то есть запущен ли уже сервер.
+     *
+     * @return {@code true}, если к сокету удалось подключиться
+     */
+    private boolean isRunning() {
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        return true;
+    }
+
+    /**
+     * Принимает подключения клиентов и передает их задания в пул потоков, пока канал сервера не закрыт.
+     *
+     * @param server   канал сервера
+     * @param executor пул потоков, выполняющих задания
+     * @param slots    свободные места в пуле и его очереди
+     */
+    private void accept(ServerSocketChannel server, ExecutorService executor, Semaphore slots) {
+        try {
+            while (true) {
+                slots.acquire();
+                SocketChannel client = server.accept();
+                executor.execute(() -> {
+                    try {
+                        handle(client);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (ClosedChannelException ignored) {
+        } catch (IOException e) {
+            console.printError("не удалось принять подключение клиента.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Читает задание клиента, выполняет его и передает клиенту код завершения.
+     * Задание с некорректным количеством параметров отклоняется с сообщением об ошибке.
+     *
+     * @param client канал клиента
+     */
+    private void handle(SocketChannel client) {
+        try (client;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)))) {
+            RemoteConsole remote = new RemoteConsole(out);
+            int count = in.readInt();
+            if (count <= 0 || count > MAX_PARAMETRES) {
+                failed.incrementAndGet();
+                remote.printError("некорректное задание: количество параметров " + count + ".");
+                remote.exit(1);
+                return;
+            }
+            String[] parametres = new String[count];
+            for (int i = 0; i < parametres.length; i++) {
+                parametres[i] = in.readUTF();
+            }
+            int code = 1;
+            running.incrementAndGet();
+            try {
+                code = execute(remote, parametres);
+            } finally {
+                running.decrementAndGet();
+                (code == 0 ? completed : failed).incrementAndGet();
+            }
+            remote.exit(code);
+        } catch (IOException ignored) {
+            // Клиент отключился или передал некорректное задание
+        }
+    }
+
+    /**
+     * Выполняет задание, удерживая блокировки его выходных файлов.
+     * Блокировки берутся в порядке путей, поэтому задания с общими файлами не ждут друг друга взаимно.
+     *
+     * @param console    консоль задания
+     * @param parametres параметры задания
+     * @return код завершения: 0 - задание выполнено, 1 - задание прервано ошибкой
+     */
+    private int execute(Console console, String[] parametres) {
+        Filter filter = new Filter(new FileManager(console), console, parametres);
+        List<String> locked = new ArrayList<>();
+        try {
+            TreeSet<String> outputs = new TreeSet<>();
+            for (String output : filter.getOutputFiles()) {
+                outputs.add(Path.of(output).toAbsolutePath().normalize().toString());
+            }
+            for (String output : outputs) {
+                outputLocks.lock(output);
+                locked.add(output);
+            }
+        } catch (IllegalKeyException | MissingFilesException | RuntimeException ignored) {
+            // Ошибку параметров выведет сортировка
+        }
+        try {
+            filter.solve();
+            return 0;
+        } catch (FilterException e) {
+            console.printError(e.getMessage());
+            return 1;
+        } catch (RuntimeException e) {
+            console.printError("задание прервано: " + e + ".");
+            return 1;
+        } finally {
+            for (String output : locked) {
+                outputLocks.unlock(output);
+            }
+        }
+    }
+
+    /**
+     * Удаляет файл сокета.
+     */
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(socket);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package Server;
+
+import Utility.Console;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Консоль задания сервера: вывод задания передается клиенту по мере появления,
+ * и клиент печатает его так же, как при запуске без сервера.
+ * Если клиент отключился, вывод отбрасывается, а задание доводится до конца.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+class RemoteConsole implements Console {
+    //Вид сообщения: обычный вывод, ошибка, код завершения задания
+    static final byte OUTPUT = 1;
+    static final byte ERROR = 2;
+    static final byte EXIT = 3;
+
+    //Поток записи клиенту
+    private final DataOutputStream out;
+    //Флаг отключения клиента
+    private boolean disconnected = false;
+
+    /**
+     * Создает консоль задания.
+     *
+     * @param out поток записи клиенту
+     */
+    RemoteConsole(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Метод вызывается для печати объекта без переноса каретки.
+     *
+     * @param obj печатаемый объект
+     */
+    @Override
+    public void print(Object obj) {
+        send(OUTPUT, String.valueOf(obj));
+    }
+
+    /**
+     * Метод вызывается для печати объекта с переносом каретки.
+     *
+     * @param obj печатаемый объект
+     */
+    @Override
+    public void println(Object obj) {
+        send(OUTPUT, obj + System.lineSeparator());
+    }
+
+    /**
+     * Метод вызывается для печати ошибки в консоль клиента.
+     *
+     * @param obj текст печатаемой ошибки
+     */
+    @Override
+    public void printError(Object obj) {
+        send(ERROR, String.valueOf(obj));
+    }
+
+    /**
+     * @return {@code false}: задание не читает команды
+     */
+    @Override
+    public boolean isCanReadln() {
+        return false;
+    }
+
+    /**
+     * Задание не получает ввода клиента, поэтому чтение, как из закрытой консоли, сразу достигает его конца.
+     *
+     * @return {@code null} - конец ввода
+     */
+    @Override
+    public String readln() {
+        return null;
+    }
+
+    /**
+     * Передает клиенту код завершения задания, после которого клиент завершает работу.
+     *
+     * @param code код завершения
+     */
+    synchronized void exit(int code) {
+        if (disconnected) return;
+        try {
+            out.writeByte(EXIT);
+            out.writeInt(code);
+            out.flush();
+        } catch (IOException e) {
+            disconnected = true;
+        }
+    }
+
+    /**
+     * Передает клиенту сообщение.
+     *
+     * @param kind вид сообщения
+     * @param text текст
+     */
+    private synchronized void send(byte kind, String text) {
+        if (disconnected) return;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            out.writeByte(kind);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+        } catch (IOException e) {
+            disconnected = true;
+        }
+    }
+}
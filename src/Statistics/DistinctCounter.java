@@ -0,0 +1,158 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Приближенно подсчитывает количество различных строк алгоритмом HyperLogLog.
+ * Память фиксирована и равна {@code 2^precision} байт, строки не хранятся.
+ * Стандартная относительная погрешность оценки равна {@code 1,04 / sqrt(2^precision)}:
+ * около 0,8% при точности 14 (16 КБ) и около 0,2% при точности 18 (256 КБ).
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class DistinctCounter {
+    //Наименьшая и наибольшая допустимая точность
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    //Количество бит хеша, выбирающих регистр
+    private final int precision;
+    //Регистры: наибольшее количество ведущих нулей хеша плюс один среди строк, попавших в регистр
+    private final byte[] registers;
+
+    /**
+     * Создает счетчик.
+     *
+     * @param precision точность от {@value #MIN_PRECISION} до {@value #MAX_PRECISION}
+     */
+    public DistinctCounter(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность должна быть от " + MIN_PRECISION + " до " + MAX_PRECISION + ".");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Учитывает очередную строку.
+     *
+     * @param line строка
+     */
+    public void add(String line) {
+        long hash = hash(line);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // Единица после сдвига ограничивает количество нулей, если оставшиеся биты хеша нулевые
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) registers[index] = rank;
+    }
+
+    /**
+     * Объединяет счетчик с другим той же точности, выбирая в каждом регистре наибольшее значение.
+     * Результат совпадает со счетчиком, учитывавшим строки обоих, поэтому точность не теряется.
+     *
+     * @param other объединяемый счетчик той же точности
+     * @return этот счетчик
+     */
+    public DistinctCounter combine(DistinctCounter other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Нельзя объединить счетчики разной точности.");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+        return this;
+    }
+
+    /**
+     * @return точность счетчика
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return стандартная относительная погрешность оценки
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return оценка количества различных строк
+     */
+    public long getEstimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) zeros++;
+        }
+        double alpha;
+        if (m == 16) {
+            alpha = 0.673;
+        } else if (m == 32) {
+            alpha = 0.697;
+        } else if (m == 64) {
+            alpha = 0.709;
+        } else {
+            alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // На малых количествах точнее оценка по доле пустых регистров
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Записывает счетчик в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(precision);
+        out.write(registers);
+    }
+
+    /**
+     * Читает счетчик, записанный методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in поток чтения
+     * @return прочитанный счетчик
+     * @throws IOException при ошибке чтения или некорректной точности
+     */
+    public static DistinctCounter readFrom(DataInput in) throws IOException {
+        int precision = in.readByte();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Некорректная точность счетчика.");
+        }
+        DistinctCounter counter = new DistinctCounter(precision);
+        in.readFully(counter.registers);
+        return counter;
+    }
+
+    /**
+     * Вычисляет 64-битный хеш строки: FNV-1a по символам и перемешивание старших и младших бит.
+     *
+     * @param line строка
+     * @return хеш строки
+     */
+    static long hash(String line) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,190 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Накапливает статистику по вещественным числам за один проход.
+ * Значения добавляются по одному, поэтому хранить сами числа не требуется.
+ * Сумма считается с компенсацией ошибок округления по алгоритму Ноймайера, поэтому погрешность суммы
+ * не растет с количеством чисел, даже если слагаемые сильно различаются по модулю.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class FloatStats {
+    //Количество чисел
+    private long count = 0;
+    //Сумма чисел без учета ошибок округления
+    private double sum = 0;
+    //Накопленная ошибка округления суммы
+    private double compensation = 0;
+    //Сумма чисел, вычисленная простым сложением; нужна, чтобы вернуть бесконечность, если сумма переполнилась
+    private double simpleSum = 0;
+    //Минимальное и максимальное число
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    //Распределение чисел, ведется только при подсчете квантилей
+    private final QuantileSketch sketch;
+
+    /**
+     * Создает статистику без подсчета квантилей.
+     */
+    public FloatStats() {
+        this(false);
+    }
+
+    /**
+     * Создает статистику.
+     *
+     * @param quantiles флаг подсчета квантилей и гистограммы распределения
+     */
+    public FloatStats(boolean quantiles) {
+        sketch = quantiles ? new QuantileSketch() : null;
+    }
+
+    /**
+     * Учитывает очередное число в статистике.
+     *
+     * @param value вещественное число
+     */
+    public void add(double value) {
+        count++;
+        addToSum(value);
+        simpleSum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (sketch != null) sketch.add(value);
+    }
+
+    /**
+     * Объединяет статистику с другой. Сумма другой статистики прибавляется с компенсацией, а накопленные
+     * поправки складываются, поэтому ошибки округления обеих частей не теряются при объединении.
+     *
+     * @param other объединяемая статистика
+     * @return эта статистика
+     */
+    public FloatStats combine(FloatStats other) {
+        count += other.count;
+        addToSum(other.sum);
+        compensation += other.compensation;
+        simpleSum += other.simpleSum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (sketch != null && other.sketch != null) sketch.combine(other.sketch);
+        return this;
+    }
+
+    /**
+     * Прибавляет число к сумме, запоминая ошибку округления сложения.
+     *
+     * @param value слагаемое
+     */
+    private void addToSum(double value) {
+        double result = sum + value;
+        // Ошибку считаем по большему по модулю слагаемому, иначе младшие разряды меньшего теряются
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - result) + value;
+        } else {
+            compensation += (value - result) + sum;
+        }
+        sum = result;
+    }
+
+    /**
+     * @return {@code true}, если не было учтено ни одного числа
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return количество чисел
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return минимальное число
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return максимальное число
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return сумма чисел
+     */
+    public double getSum() {
+        double result = sum + compensation;
+        if (Double.isNaN(result) && Double.isInfinite(simpleSum)) {
+            return simpleSum;
+        }
+        return result;
+    }
+
+    /**
+     * @return среднее арифметическое
+     */
+    public double getAverage() {
+        return getSum() / getCount();
+    }
+
+    /**
+     * @return распределение чисел или {@code null}, если квантили не подсчитываются
+     */
+    public QuantileSketch getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Записывает статистику в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(sum);
+        out.writeDouble(compensation);
+        out.writeDouble(simpleSum);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeBoolean(sketch != null);
+        if (sketch != null) sketch.writeTo(out);
+    }
+
+    /**
+     * Читает статистику, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in поток чтения
+     * @return прочитанная статистика
+     * @throws IOException при ошибке чтения
+     */
+    public static FloatStats readFrom(DataInput in) throws IOException {
+        long count = in.readLong();
+        double sum = in.readDouble();
+        double compensation = in.readDouble();
+        double simpleSum = in.readDouble();
+        double min = in.readDouble();
+        double max = in.readDouble();
+        boolean quantiles = in.readBoolean();
+        FloatStats stats = new FloatStats(quantiles);
+        stats.count = count;
+        stats.sum = sum;
+        stats.compensation = compensation;
+        stats.simpleSum = simpleSum;
+        stats.min = min;
+        stats.max = max;
+        if (quantiles) stats.sketch.combine(QuantileSketch.readFrom(in));
+        return stats;
+    }
+}
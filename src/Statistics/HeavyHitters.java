@@ -0,0 +1,290 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Находит самые частые строки алгоритмом Space-Saving.
+ * Хранится не больше {@code capacity} строк со счетчиками; когда встречается новая строка, а место занято,
+ * она заменяет строку с наименьшим счетчиком и наследует его. Поэтому счетчик может быть завышен,
+ * но не больше чем на {@code N / capacity}, где {@code N} - количество учтенных строк, и любая строка,
+ * встретившаяся чаще этого, гарантированно присутствует среди хранимых.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class HeavyHitters {
+    //Наибольшая длина строки в байтах, которую допускает чтение набора из файла
+    private static final int MAX_ITEM_BYTES = 1 << 24;
+    //Наибольшее количество хранимых строк
+    private final int capacity;
+    //Строки, счетчики и их возможное завышение в виде двоичной кучи с наименьшим счетчиком в корне
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    //Количество хранимых строк
+    private int size = 0;
+    //Позиции хранимых строк в куче
+    private final Map<String, Integer> positions;
+
+    /**
+     * Создает набор.
+     *
+     * @param capacity наибольшее количество хранимых строк
+     */
+    public HeavyHitters(int capacity) {
+        this.capacity = capacity;
+        this.items = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Учитывает очередную строку.
+     *
+     * @param line строка
+     */
+    public void add(String line) {
+        add(line, 1, 0);
+    }
+
+    /**
+     * Учитывает строку, встретившуюся несколько раз.
+     *
+     * @param line  строка
+     * @param count количество повторений
+     * @param error возможное завышение количества повторений
+     */
+    private void add(String line, long count, long error) {
+        Integer position = positions.get(line);
+        if (position != null) {
+            counts[position] += count;
+            errors[position] += error;
+            siftDown(position);
+        } else if (size < capacity) {
+            set(size, line, count, error);
+            siftUp(size++);
+        } else {
+            positions.remove(items[0]);
+            set(0, line, counts[0] + count, counts[0] + error);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Объединяет набор с другим; погрешность объединенного набора складывается из погрешностей исходных.
+     * Строка, которой нет в заполненном наборе, могла встретиться в нем не больше наименьшего
+     * его счетчика раз, поэтому этот счетчик добавляется к ее количеству и погрешности.
+     *
+     * @param other объединяемый набор
+     * @return этот набор
+     */
+    public HeavyHitters combine(HeavyHitters other) {
+        long thisMin = size == capacity ? counts[0] : 0;
+        long otherMin = other.size == other.capacity ? other.counts[0] : 0;
+        Map<String, long[]> merged = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            merged.put(items[i], new long[]{counts[i] + otherMin, errors[i] + otherMin});
+        }
+        for (int i = 0; i < other.size; i++) {
+            long[] entry = merged.get(other.items[i]);
+            if (entry != null) {
+                entry[0] += other.counts[i] - otherMin;
+                entry[1] += other.errors[i] - otherMin;
+            } else {
+                merged.put(other.items[i], new long[]{other.counts[i] + thisMin, other.errors[i] + thisMin});
+            }
+        }
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        positions.clear();
+        size = 0;
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(capacity, entries.size()))) {
+            set(size, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            siftUp(size++);
+        }
+        return this;
+    }
+
+    /**
+     * Возвращает самые частые строки по убыванию количества.
+     *
+     * @param limit наибольшее количество строк
+     * @return список самых частых строк
+     */
+    public List<Entry> getTop(int limit) {
+        List<Entry> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(new Entry(items[i], counts[i], errors[i]));
+        }
+        top.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    /**
+     * @return наибольшее количество хранимых строк
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Записывает набор в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = items[i].getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+
+    /**
+     * Читает набор, записанный методом {@link #writeTo(DataOutput)}. Размеры проверяются до выделения памяти,
+     * чтобы поврежденный файл приводил к ошибке чтения, а не к нехватке памяти.
+     *
+     * @param in       поток чтения
+     * @param capacity ожидаемое наибольшее количество хранимых строк
+     * @return прочитанный набор
+     * @throws IOException при ошибке чтения, другой вместимости набора или некорректных данных
+     */
+    public static HeavyHitters readFrom(DataInput in, int capacity) throws IOException {
+        int storedCapacity = in.readInt();
+        int size = in.readInt();
+        if (storedCapacity != capacity || size < 0 || size > capacity) {
+            throw new IOException("Некорректный размер набора частых строк.");
+        }
+        HeavyHitters heavyHitters = new HeavyHitters(capacity);
+        for (int i = 0; i < size; i++) {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_ITEM_BYTES) {
+                throw new IOException("Некорректная длина частой строки.");
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            heavyHitters.set(i, new String(bytes, StandardCharsets.UTF_8), in.readLong(), in.readLong());
+            heavyHitters.siftUp(heavyHitters.size++);
+        }
+        return heavyHitters;
+    }
+
+    /**
+     * Помещает строку со счетчиком в позицию кучи.
+     *
+     * @param position позиция в куче
+     * @param line     строка
+     * @param count    количество повторений
+     * @param error    возможное завышение количества
+     */
+    private void set(int position, String line, long count, long error) {
+        items[position] = line;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(line, position);
+    }
+
+    /**
+     * Меняет местами две позиции кучи.
+     *
+     * @param i первая позиция
+     * @param j вторая позиция
+     */
+    private void swap(int i, int j) {
+        String item = items[i];
+        long count = counts[i];
+        long error = errors[i];
+        set(i, items[j], counts[j], errors[j]);
+        set(j, item, count, error);
+    }
+
+    /**
+     * Поднимает строку к корню кучи, пока ее счетчик меньше счетчика родителя.
+     *
+     * @param position позиция строки
+     */
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) return;
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    /**
+     * Опускает строку от корня кучи, пока ее счетчик больше счетчика одного из потомков.
+     *
+     * @param position позиция строки
+     */
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            if (left < size && counts[left] < counts[smallest]) smallest = left;
+            if (left + 1 < size && counts[left + 1] < counts[smallest]) smallest = left + 1;
+            if (smallest == position) return;
+            swap(smallest, position);
+            position = smallest;
+        }
+    }
+
+    /**
+     * Строка и оценка количества ее повторений.
+     */
+    public static class Entry {
+        //Строка
+        private final String line;
+        //Количество повторений, возможно завышенное
+        private final long count;
+        //Наибольшее возможное завышение количества
+        private final long error;
+
+        /**
+         * Создает оценку количества повторений строки.
+         *
+         * @param line  строка
+         * @param count количество повторений
+         * @param error наибольшее возможное завышение количества
+         */
+        Entry(String line, long count, long error) {
+            this.line = line;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * @return строка
+         */
+        public String getLine() {
+            return line;
+        }
+
+        /**
+         * @return количество повторений, возможно завышенное
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return наибольшее возможное завышение количества
+         */
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Накапливает статистику по целым числам за один проход.
+ * Значения добавляются по одному, поэтому хранить сами числа не требуется.
+ * Сумма накапливается в {@code long}, и только при переполнении накопленная часть переносится в {@link BigInteger},
+ * поэтому учет числа обходится одним сложением и проверкой переполнения.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class IntegerStats {
+    //Наибольшая длина числа произвольной длины в файле статистики: сумма чисел long занимает не больше 17 байт
+    private static final int MAX_BIG_INTEGER_BYTES = 64;
+
+    //Количество чисел
+    private long count = 0;
+    //Минимальное число
+    private long min = Long.MAX_VALUE;
+    //Максимальное число
+    private long max = Long.MIN_VALUE;
+    //Часть суммы, накопленная в long с момента последнего переполнения
+    private long sum = 0;
+    //Часть суммы, перенесенная из long при переполнениях
+    private BigInteger overflow = BigInteger.ZERO;
+    //Минимальное и максимальное из чисел, не помещающихся в long
+    private BigInteger wideMin;
+    private BigInteger wideMax;
+    //Распределение чисел, ведется только при подсчете квантилей
+    private final QuantileSketch sketch;
+
+    /**
+     * Создает статистику без подсчета квантилей.
+     */
+    public IntegerStats() {
+        this(false);
+    }
+
+    /**
+     * Создает статистику.
+     *
+     * @param quantiles флаг подсчета квантилей и гистограммы распределения
+     */
+    public IntegerStats(boolean quantiles) {
+        sketch = quantiles ? new QuantileSketch(true) : null;
+    }
+
+    /**
+     * Учитывает очередное число в статистике.
+     *
+     * @param value целое число
+     */
+    public void add(long value) {
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        addToSum(value);
+        if (sketch != null) sketch.add(value);
+    }
+
+    /**
+     * Учитывает очередное число произвольной длины в статистике.
+     *
+     * @param value целое число
+     */
+    public void add(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            add(value.longValue());
+            return;
+        }
+        count++;
+        if (wideMin == null || value.compareTo(wideMin) < 0) wideMin = value;
+        if (wideMax == null || value.compareTo(wideMax) > 0) wideMax = value;
+        overflow = overflow.add(value);
+        if (sketch != null) sketch.add(value.doubleValue());
+    }
+
+    /**
+     * Объединяет статистику с другой: складывает количества и суммы, включая перенесенные в {@link BigInteger},
+     * выбирает меньший минимум и больший максимум и объединяет распределения, если они подсчитываются в обеих.
+     *
+     * @param other объединяемая статистика
+     * @return эта статистика
+     */
+    public IntegerStats combine(IntegerStats other) {
+        count += other.count;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+        addToSum(other.sum);
+        overflow = overflow.add(other.overflow);
+        if (other.wideMin != null && (wideMin == null || other.wideMin.compareTo(wideMin) < 0)) wideMin = other.wideMin;
+        if (other.wideMax != null && (wideMax == null || other.wideMax.compareTo(wideMax) > 0)) wideMax = other.wideMax;
+        if (sketch != null && other.sketch != null) sketch.combine(other.sketch);
+        return this;
+    }
+
+    /**
+     * Прибавляет число к сумме, перенося накопленную часть в {@link #overflow}, если сложение переполняет {@code long}.
+     *
+     * @param value слагаемое
+     */
+    private void addToSum(long value) {
+        long result = sum + value;
+        // Переполнение возможно только при слагаемых одного знака, и тогда знак результата отличается от их знака
+        if (((sum ^ result) & (value ^ result)) < 0) {
+            overflow = overflow.add(BigInteger.valueOf(sum));
+            result = value;
+        }
+        sum = result;
+    }
+
+    /**
+     * @return {@code true}, если не было учтено ни одного числа
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return количество чисел
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return минимальное число
+     */
+    public BigInteger getMin() {
+        if (wideMin != null && (wideMin.signum() < 0 || min > max)) return wideMin;
+        return BigInteger.valueOf(min);
+    }
+
+    /**
+     * @return максимальное число
+     */
+    public BigInteger getMax() {
+        if (wideMax != null && (wideMax.signum() > 0 || min > max)) return wideMax;
+        return BigInteger.valueOf(max);
+    }
+
+    /**
+     * @return сумма чисел
+     */
+    public BigInteger getSum() {
+        return overflow.add(BigInteger.valueOf(sum));
+    }
+
+    /**
+     * @return среднее арифметическое, округленное до ближайшего {@code double}
+     */
+    public double getAverage() {
+        if (overflow.signum() == 0 && Math.abs(sum) < 1L << 53) {
+            // Сумма представима в double точно, поэтому деление округляется один раз
+            return (double) sum / count;
+        }
+        return new BigDecimal(getSum()).divide(BigDecimal.valueOf(count), MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**
+     * @return распределение чисел или {@code null}, если квантили не подсчитываются
+     */
+    public QuantileSketch getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Записывает статистику в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeLong(sum);
+        writeBigInteger(out, overflow);
+        writeBigInteger(out, wideMin);
+        writeBigInteger(out, wideMax);
+        out.writeBoolean(sketch != null);
+        if (sketch != null) sketch.writeTo(out);
+    }
+
+    /**
+     * Читает статистику, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in поток чтения
+     * @return прочитанная статистика
+     * @throws IOException при ошибке чтения или некорректных данных
+     */
+    public static IntegerStats readFrom(DataInput in) throws IOException {
+        long count = in.readLong();
+        long min = in.readLong();
+        long max = in.readLong();
+        long sum = in.readLong();
+        BigInteger overflow = readBigInteger(in);
+        BigInteger wideMin = readBigInteger(in);
+        BigInteger wideMax = readBigInteger(in);
+        boolean quantiles = in.readBoolean();
+        IntegerStats stats = new IntegerStats(quantiles);
+        stats.count = count;
+        stats.min = min;
+        stats.max = max;
+        stats.sum = sum;
+        stats.overflow = overflow == null ? BigInteger.ZERO : overflow;
+        stats.wideMin = wideMin;
+        stats.wideMax = wideMax;
+        if (quantiles) stats.sketch.combine(QuantileSketch.readFrom(in));
+        return stats;
+    }
+
+    /**
+     * Записывает число произвольной длины.
+     *
+     * @param out   поток записи
+     * @param value число или {@code null}
+     * @throws IOException при ошибке записи
+     */
+    private static void writeBigInteger(DataOutput out, BigInteger value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Читает число, записанное методом {@link #writeBigInteger(DataOutput, BigInteger)}.
+     * Длина проверяется до выделения памяти, чтобы поврежденный файл приводил к ошибке чтения.
+     *
+     * @param in поток чтения
+     * @return число или {@code null}
+     * @throws IOException при ошибке чтения или некорректной длине числа
+     */
+    private static BigInteger readBigInteger(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) return null;
+        if (length <= 0 || length > MAX_BIG_INTEGER_BYTES) {
+            throw new IOException("Некорректная длина числа.");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new BigInteger(bytes);
+    }
+}
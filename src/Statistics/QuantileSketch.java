@@ -0,0 +1,384 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Приближенно вычисляет квантили и гистограмму распределения чисел за один проход с ограниченной памятью.
+ * Числа не хранятся и не сортируются: положительные и отрицательные числа раскладываются по корзинам
+ * с логарифмическими границами {@code (γ^(i-1), γ^i]}, где {@code γ = (1 + α) / (1 - α)}.
+ * <p>
+ * Погрешность: квантиль, найденный по корзинам, отличается от точного значения того же ранга
+ * не более чем на {@value #RELATIVE_ACCURACY} от его модуля; для целых чисел значения корзин округляются,
+ * поэтому погрешность - это та же доля модуля, округленная до ближайшего целого. Память ограничена {@value #MAX_BUCKETS}
+ * корзинами для каждого знака (не более 64 КБ), чего хватает на весь диапазон {@code long}; если числа
+ * одного знака различаются по модулю больше чем в {@code γ^MAX_BUCKETS ≈ 4·10^35} раз, самые близкие к нулю корзины объединяются,
+ * и для таких чисел погрешность становится абсолютной. Числа по модулю меньше {@link Double#MIN_NORMAL}
+ * считаются нулем, значения NaN не учитываются.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class QuantileSketch {
+    //Допустимая относительная погрешность квантилей
+    public static final double RELATIVE_ACCURACY = 0.01;
+    //Наибольшее количество корзин для чисел одного знака
+    private static final int MAX_BUCKETS = 4096;
+    //Основание логарифмических границ корзин
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    //Корзины положительных чисел и модулей отрицательных чисел
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    //Количество нулей
+    private long zeros = 0;
+    //Количество бесконечностей
+    private long positiveInfinities = 0;
+    private long negativeInfinities = 0;
+    //Количество учтенных чисел
+    private long count = 0;
+    //Минимальное и максимальное число
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    //Флаг целых чисел: значения корзин округляются до целых
+    private final boolean integers;
+
+    /**
+     * Создает распределение вещественных чисел.
+     */
+    public QuantileSketch() {
+        this(false);
+    }
+
+    /**
+     * Создает распределение.
+     *
+     * @param integers флаг целых чисел: значения корзин округляются до целых
+     */
+    public QuantileSketch(boolean integers) {
+        this.integers = integers;
+    }
+
+    /**
+     * Учитывает очередное число в распределении.
+     *
+     * @param value число
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinities++;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinities++;
+        } else if (value >= Double.MIN_NORMAL) {
+            positive.add(index(value), 1);
+        } else if (value <= -Double.MIN_NORMAL) {
+            negative.add(index(-value), 1);
+        } else {
+            zeros++;
+        }
+    }
+
+    /**
+     * Объединяет распределение с другим, складывая счетчики одинаковых корзин. Границы корзин
+     * у всех распределений одни и те же, поэтому относительная погрешность квантилей не растет.
+     *
+     * @param other объединяемое распределение
+     * @return это распределение
+     */
+    public QuantileSketch combine(QuantileSketch other) {
+        positive.combine(other.positive);
+        negative.combine(other.negative);
+        zeros += other.zeros;
+        positiveInfinities += other.positiveInfinities;
+        negativeInfinities += other.negativeInfinities;
+        count += other.count;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+        return this;
+    }
+
+    /**
+     * @return {@code true}, если не было учтено ни одного числа
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return минимальное число
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return максимальное число
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Находит приближенное значение квантиля.
+     *
+     * @param quantile уровень квантиля от 0 до 1
+     * @return наименьшее число, не меньше которого доля {@code quantile} всех учтенных чисел
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) return Double.NaN;
+        // Ранг по методу ближайшего ранга: наименьшее число, не меньше которого доля quantile всех чисел
+        long rank = Math.max(0, (long) Math.ceil(quantile * count) - 1);
+        if (rank < negativeInfinities) return Double.NEGATIVE_INFINITY;
+        rank -= negativeInfinities;
+        if (rank < negative.total) {
+            // Отрицательные числа идут по возрастанию, то есть от корзин с большими модулями
+            return clamp(-value(negative.indexOfRank(negative.total - 1 - rank)));
+        }
+        rank -= negative.total;
+        if (rank < zeros) return clamp(0);
+        rank -= zeros;
+        if (rank < positive.total) return clamp(value(positive.indexOfRank(rank)));
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Строит гистограмму распределения с интервалами равной ширины.
+     * Число попадает в интервал по значению своей корзины, поэтому граница интервала
+     * определяется с той же относительной погрешностью, что и квантили.
+     *
+     * @param lower нижняя граница первого интервала
+     * @param upper верхняя граница последнего интервала; числа, равные ей, попадают в последний интервал
+     * @param bins  количество интервалов
+     * @return количество чисел в каждом интервале
+     */
+    public long[] getHistogram(double lower, double upper, int bins) {
+        long[] histogram = new long[bins];
+        double width = (upper - lower) / bins;
+        for (int i = negative.maxIndex; negative.total > 0 && i >= negative.minIndex; i--) {
+            addToHistogram(histogram, -value(i), negative.get(i), lower, width);
+        }
+        addToHistogram(histogram, 0, zeros, lower, width);
+        for (int i = positive.minIndex; positive.total > 0 && i <= positive.maxIndex; i++) {
+            addToHistogram(histogram, value(i), positive.get(i), lower, width);
+        }
+        addToHistogram(histogram, min, negativeInfinities, lower, width);
+        addToHistogram(histogram, max, positiveInfinities, lower, width);
+        return histogram;
+    }
+
+    /**
+     * Добавляет числа одной корзины в интервал гистограммы.
+     *
+     * @param histogram гистограмма
+     * @param value     значение корзины
+     * @param count     количество чисел в корзине
+     * @param lower     нижняя граница первого интервала
+     * @param width     ширина интервала
+     */
+    private void addToHistogram(long[] histogram, double value, long count, double lower, double width) {
+        if (count == 0) return;
+        int bin = width > 0 ? (int) ((clamp(value) - lower) / width) : 0;
+        histogram[Math.max(0, Math.min(histogram.length - 1, bin))] += count;
+    }
+
+    /**
+     * Ограничивает значение корзины точными минимумом и максимумом, для целых чисел - округляя его.
+     *
+     * @param value значение корзины
+     * @return значение в пределах от минимального до максимального числа
+     */
+    private double clamp(double value) {
+        if (integers) value = Math.rint(value);
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @param value положительное число
+     * @return номер корзины, в которую попадает число
+     */
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * @param index номер корзины
+     * @return значение корзины, отличающееся от любого числа корзины не более чем на {@value #RELATIVE_ACCURACY}
+     */
+    private static double value(int index) {
+        return Math.exp(index * LOG_GAMMA) * 2 / (GAMMA + 1);
+    }
+
+    /**
+     * Записывает распределение в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(integers);
+        out.writeLong(count);
+        out.writeLong(zeros);
+        out.writeLong(positiveInfinities);
+        out.writeLong(negativeInfinities);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        positive.writeTo(out);
+        negative.writeTo(out);
+    }
+
+    /**
+     * Читает распределение, записанное методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in поток чтения
+     * @return прочитанное распределение
+     * @throws IOException при ошибке чтения
+     */
+    public static QuantileSketch readFrom(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch(in.readBoolean());
+        sketch.count = in.readLong();
+        sketch.zeros = in.readLong();
+        sketch.positiveInfinities = in.readLong();
+        sketch.negativeInfinities = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.positive.readFrom(in);
+        sketch.negative.readFrom(in);
+        return sketch;
+    }
+
+    /**
+     * Счетчики чисел одного знака по корзинам. Хранятся только корзины в диапазоне
+     * из {@value #MAX_BUCKETS} номеров; корзины ниже диапазона объединяются с его первой корзиной.
+     */
+    private static class Buckets {
+        //Счетчики корзин, создаются при добавлении первого числа
+        private long[] counts;
+        //Номер корзины, соответствующей первому счетчику
+        private int offset;
+        //Наименьший и наибольший номер непустой корзины
+        private int minIndex;
+        private int maxIndex;
+        //Количество чисел во всех корзинах
+        private long total = 0;
+
+        /**
+         * Добавляет числа в корзину, сдвигая диапазон хранимых корзин при необходимости.
+         *
+         * @param index номер корзины
+         * @param count количество чисел
+         */
+        void add(int index, long count) {
+            if (counts == null) {
+                counts = new long[MAX_BUCKETS];
+                offset = index - MAX_BUCKETS / 2;
+                minIndex = maxIndex = index;
+            }
+            if (index < offset || index >= offset + MAX_BUCKETS) {
+                shift(Math.min(minIndex, index), Math.max(maxIndex, index));
+            }
+            index = Math.max(index, offset);
+            counts[index - offset] += count;
+            if (index < minIndex) minIndex = index;
+            if (index > maxIndex) maxIndex = index;
+            total += count;
+        }
+
+        /**
+         * Сдвигает диапазон хранимых корзин так, чтобы он включал корзины с номерами от {@code low} до {@code high}.
+         * Если они не помещаются, корзины с наименьшими номерами объединяются.
+         *
+         * @param low  наименьший нужный номер корзины
+         * @param high наибольший нужный номер корзины
+         */
+        private void shift(int low, int high) {
+            // Свободное место делим поровну между началом и концом диапазона
+            int newOffset = Math.max(high - MAX_BUCKETS + 1, low - (MAX_BUCKETS - (high - low + 1)) / 2);
+            long[] shifted = new long[MAX_BUCKETS];
+            for (int i = minIndex; total > 0 && i <= maxIndex; i++) {
+                shifted[Math.max(i, newOffset) - newOffset] += counts[i - offset];
+            }
+            counts = shifted;
+            offset = newOffset;
+            minIndex = Math.max(minIndex, newOffset);
+        }
+
+        /**
+         * @param index номер корзины
+         * @return количество чисел в корзине
+         */
+        long get(int index) {
+            return counts[index - offset];
+        }
+
+        /**
+         * Находит корзину, в которую попадает число с заданным рангом при обходе корзин по возрастанию номеров.
+         *
+         * @param rank ранг числа, от 0
+         * @return номер корзины
+         */
+        int indexOfRank(long rank) {
+            long seen = 0;
+            for (int i = minIndex; i < maxIndex; i++) {
+                seen += counts[i - offset];
+                if (seen > rank) return i;
+            }
+            return maxIndex;
+        }
+
+        /**
+         * Записывает непустой диапазон корзин.
+         *
+         * @param out поток записи
+         * @throws IOException при ошибке записи
+         */
+        void writeTo(DataOutput out) throws IOException {
+            out.writeLong(total);
+            if (total == 0) return;
+            out.writeInt(offset);
+            out.writeInt(minIndex);
+            out.writeInt(maxIndex);
+            for (int i = minIndex; i <= maxIndex; i++) {
+                out.writeLong(counts[i - offset]);
+            }
+        }
+
+        /**
+         * Читает диапазон корзин, записанный методом {@link #writeTo(DataOutput)}.
+         *
+         * @param in поток чтения
+         * @throws IOException при ошибке чтения или некорректных данных
+         */
+        void readFrom(DataInput in) throws IOException {
+            total = in.readLong();
+            if (total == 0) return;
+            offset = in.readInt();
+            minIndex = in.readInt();
+            maxIndex = in.readInt();
+            if (minIndex < offset || maxIndex < minIndex || (long) maxIndex - offset >= MAX_BUCKETS) {
+                throw new IOException("Некорректный диапазон корзин.");
+            }
+            counts = new long[MAX_BUCKETS];
+            for (int i = minIndex; i <= maxIndex; i++) {
+                counts[i - offset] = in.readLong();
+            }
+        }
+
+        /**
+         * Добавляет в корзины числа из других корзин.
+         *
+         * @param other объединяемые корзины
+         */
+        void combine(Buckets other) {
+            for (int i = other.minIndex; other.total > 0 && i <= other.maxIndex; i++) {
+                long count = other.get(i);
+                if (count > 0) add(i, count);
+            }
+        }
+    }
+}
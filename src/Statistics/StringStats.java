@@ -0,0 +1,184 @@
+package Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Накапливает статистику по строкам за один проход.
+ * Учитывается только длина строк, поэтому хранить сами строки не требуется.
+ * Дополнительно можно подсчитывать количество различных строк и самые частые строки
+ * приближенными алгоритмами с фиксированным объемом памяти.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class StringStats {
+    //Количество строк
+    private long count = 0;
+    //Длина самой короткой строки
+    private int minLength = Integer.MAX_VALUE;
+    //Длина самой длинной строки
+    private int maxLength = Integer.MIN_VALUE;
+    //Счетчик различных строк и самые частые строки, ведутся только при подсчете уникальных строк
+    private final DistinctCounter distinct;
+    private final HeavyHitters heavyHitters;
+
+    /**
+     * Создает статистику без подсчета уникальных строк.
+     */
+    public StringStats() {
+        distinct = null;
+        heavyHitters = null;
+    }
+
+    /**
+     * Создает статистику с подсчетом различных и самых частых строк.
+     *
+     * @param precision точность счетчика различных строк, см. {@link DistinctCounter}
+     * @param capacity  наибольшее количество хранимых частых строк, см. {@link HeavyHitters}
+     */
+    public StringStats(int precision, int capacity) {
+        this(new DistinctCounter(precision), new HeavyHitters(capacity));
+    }
+
+    /**
+     * Создает статистику с заданными счетчиками уникальных строк.
+     *
+     * @param distinct     счетчик различных строк или {@code null}
+     * @param heavyHitters самые частые строки или {@code null}
+     */
+    private StringStats(DistinctCounter distinct, HeavyHitters heavyHitters) {
+        this.distinct = distinct;
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * Учитывает очередную строку в статистике.
+     *
+     * @param length длина строки
+     */
+    public void add(int length) {
+        count++;
+        if (length < minLength) minLength = length;
+        if (length > maxLength) maxLength = length;
+    }
+
+    /**
+     * Учитывает очередную строку в статистике, в том числе в подсчете уникальных строк.
+     *
+     * @param line строка
+     */
+    public void add(String line) {
+        add(line.length());
+        if (distinct != null) {
+            distinct.add(line);
+            heavyHitters.add(line);
+        }
+    }
+
+    /**
+     * Объединяет статистику с другой: складывает количества строк и выбирает крайние длины.
+     * Счетчики различных и частых строк объединяются, только если они подсчитываются в обеих статистиках.
+     *
+     * @param other объединяемая статистика
+     * @return эта статистика
+     */
+    public StringStats combine(StringStats other) {
+        count += other.count;
+        if (other.minLength < minLength) minLength = other.minLength;
+        if (other.maxLength > maxLength) maxLength = other.maxLength;
+        if (distinct != null && other.distinct != null) {
+            distinct.combine(other.distinct);
+            heavyHitters.combine(other.heavyHitters);
+        }
+        return this;
+    }
+
+    /**
+     * @return {@code true}, если не было учтено ни одной строки
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return количество строк
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return длина самой короткой строки
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * @return длина самой длинной строки
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return {@code true}, если подсчитываются различные и самые частые строки
+     */
+    public boolean isCountingDistinct() {
+        return distinct != null;
+    }
+
+    /**
+     * @return счетчик различных строк или {@code null}, если уникальные строки не подсчитываются
+     */
+    public DistinctCounter getDistinct() {
+        return distinct;
+    }
+
+    /**
+     * @return самые частые строки или {@code null}, если уникальные строки не подсчитываются
+     */
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    /**
+     * Записывает статистику в двоичном виде.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeInt(minLength);
+        out.writeInt(maxLength);
+        out.writeBoolean(distinct != null);
+        if (distinct != null) {
+            distinct.writeTo(out);
+            heavyHitters.writeTo(out);
+        }
+    }
+
+    /**
+     * Читает статистику, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in       поток чтения
+     * @param capacity ожидаемое наибольшее количество хранимых частых строк
+     * @return прочитанная статистика
+     * @throws IOException при ошибке чтения или некорректных данных
+     */
+    public static StringStats readFrom(DataInput in, int capacity) throws IOException {
+        long count = in.readLong();
+        int minLength = in.readInt();
+        int maxLength = in.readInt();
+        StringStats stats = in.readBoolean()
+                ? new StringStats(DistinctCounter.readFrom(in), HeavyHitters.readFrom(in, capacity))
+                : new StringStats();
+        stats.count = count;
+        stats.minLength = minLength;
+        stats.maxLength = maxLength;
+        return stats;
+    }
+}
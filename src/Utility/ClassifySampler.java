@@ -0,0 +1,104 @@
+package Utility;
+
+import Managers.MetricsManager;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Определяет типы строк через {@link TypeChecker}, подсчитывая строки каждого типа и оценивая время
+ * классификации по выборке: замеряется каждая {@value #SAMPLE_RATE}-я строка, а общее время
+ * пропорционально пересчитывается на все строки. Замер каждой строки стоил бы дороже самой классификации.
+ * Замеры дольше {@value #OUTLIER_NANOS} нс не учитываются: так долго строка классифицируется, только если
+ * поток был вытеснен или остановлен сборкой мусора, а пересчет такого замера на все строки исказил бы оценку.
+ * Классификация вызывается из одного места и для замеряемых строк, и для остальных: иначе JIT-компилятор
+ * встраивает ее хуже и обработка заметно замедляется.
+ * <p>
+ * Экземпляр не потокобезопасен: у каждого потока, классифицирующего строки, должен быть свой.
+ * Накопленные показатели передаются в {@link MetricsManager} методом {@link #report(MetricsManager)}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class ClassifySampler {
+    //Каждая какая строка замеряется; степень двойки
+    private static final int SAMPLE_RATE = 256;
+    //Наибольшая учитываемая длительность замера в наносекундах
+    private static final long OUTLIER_NANOS = 100_000;
+
+    //Утилита определения типов данных
+    private final TypeChecker typeChecker = TypeChecker.getInstance();
+    //Количество строк каждого типа
+    private final long[] counts = new long[DataType.values().length];
+    //Количество классифицированных строк
+    private long calls = 0;
+    //Количество и суммарное время замеренных строк
+    private long samples = 0;
+    private long sampledNanos = 0;
+
+    /**
+     * Определяет тип строки.
+     *
+     * @param line строка
+     * @param out  результат разбора числа
+     * @return тип строки
+     */
+    public DataType classify(String line, ParsedValue out) {
+        boolean sampled = (calls++ & (SAMPLE_RATE - 1)) == 0;
+        long start = sampled ? System.nanoTime() : 0;
+        DataType type = typeChecker.classify(line, out);
+        if (sampled) sample(System.nanoTime() - start);
+        return count(type);
+    }
+
+    /**
+     * Определяет тип строки, заданной диапазоном байтов UTF-8.
+     *
+     * @param buffer буфер с байтами строки
+     * @param from   начало строки
+     * @param to     конец строки, не включительно
+     * @param out    результат разбора числа
+     * @return тип строки
+     */
+    public DataType classify(ByteBuffer buffer, int from, int to, ParsedValue out) {
+        boolean sampled = (calls++ & (SAMPLE_RATE - 1)) == 0;
+        long start = sampled ? System.nanoTime() : 0;
+        DataType type = typeChecker.classify(buffer, from, to, out);
+        if (sampled) sample(System.nanoTime() - start);
+        return count(type);
+    }
+
+    /**
+     * Учитывает замер времени классификации, если он не выброс.
+     *
+     * @param nanos длительность замера в наносекундах
+     */
+    private void sample(long nanos) {
+        if (nanos > OUTLIER_NANOS) return;
+        sampledNanos += nanos;
+        samples++;
+    }
+
+    /**
+     * Учитывает строку в количестве строк ее типа.
+     *
+     * @param type тип строки
+     * @return тип строки
+     */
+    private DataType count(DataType type) {
+        counts[type.ordinal()]++;
+        return type;
+    }
+
+    /**
+     * Передает накопленные показатели в сборщик и обнуляет их.
+     *
+     * @param metrics сборщик показателей выполнения
+     */
+    public void report(MetricsManager metrics) {
+        long nanos = samples > 0 ? Math.round((double) sampledNanos * calls / samples) : 0;
+        metrics.addClassified(nanos, counts);
+        Arrays.fill(counts, 0);
+        calls = samples = sampledNanos = 0;
+    }
+}
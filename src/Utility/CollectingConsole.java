@@ -0,0 +1,94 @@
+package Utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Консоль, запоминающая тексты ошибок, чтобы вернуть их вызывающему коду вместо печати.
+ * Если передана другая консоль, весь вывод дополнительно передается в нее.
+ * Ввода у такой консоли нет: она ведет себя как закрытая консоль.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class CollectingConsole implements Console {
+    //Консоль, в которую передается вывод, или null
+    private final Console console;
+    //Тексты ошибок в порядке возникновения
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Создает консоль, только запоминающую ошибки.
+     */
+    public CollectingConsole() {
+        this(null);
+    }
+
+    /**
+     * Создает консоль, запоминающую ошибки и передающую весь вывод в другую консоль.
+     *
+     * @param console консоль, в которую передается вывод, или {@code null}
+     */
+    public CollectingConsole(Console console) {
+        this.console = console;
+    }
+
+    /**
+     * Метод вызывается для печати объекта без переноса каретки.
+     *
+     * @param obj печатаемый объект
+     */
+    @Override
+    public void print(Object obj) {
+        if (console != null) console.print(obj);
+    }
+
+    /**
+     * Метод вызывается для печати объекта с переносом каретки.
+     *
+     * @param obj печатаемый объект
+     */
+    @Override
+    public void println(Object obj) {
+        if (console != null) console.println(obj);
+    }
+
+    /**
+     * Метод вызывается для запоминания текста ошибки.
+     *
+     * @param obj текст ошибки
+     */
+    @Override
+    public void printError(Object obj) {
+        errors.add(String.valueOf(obj));
+        if (console != null) console.printError(obj);
+    }
+
+    /**
+     * @return {@code false}: из консоли нельзя читать
+     */
+    @Override
+    public boolean isCanReadln() {
+        return false;
+    }
+
+    /**
+     * Ввода у консоли нет, поэтому чтение, как из закрытой консоли, сразу достигает его конца.
+     *
+     * @return {@code null} - конец ввода
+     */
+    @Override
+    public String readln() {
+        return null;
+    }
+
+    /**
+     * @return тексты ошибок в порядке возникновения
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
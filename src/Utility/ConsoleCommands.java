@@ -0,0 +1,50 @@
+package Utility;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Читает команды из консоли в фоновом потоке, чтобы длительная обработка могла проверять их
+ * между порциями работы, не блокируясь на чтении.
+ * Когда ввод заканчивается, поток завершается, а обработка продолжается.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class ConsoleCommands {
+    //Консоль, из которой читаются команды
+    private final Console console;
+    //Прочитанные, но еще не обработанные команды
+    private final BlockingQueue<String> commands = new LinkedBlockingQueue<>();
+
+    /**
+     * Создает читатель команд.
+     *
+     * @param console консоль
+     */
+    public ConsoleCommands(Console console) {
+        this.console = console;
+    }
+
+    /**
+     * Запускает фоновый поток чтения команд.
+     */
+    public void start() {
+        Thread reader = new Thread(() -> {
+            while (console.isCanReadln()) {
+                commands.add(console.readln().trim());
+            }
+        }, "console-commands");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Возвращает очередную прочитанную команду, не дожидаясь ввода.
+     *
+     * @return команда без пробелов по краям или {@code null}, если новых команд нет
+     */
+    public String poll() {
+        return commands.poll();
+    }
+}
@@ -0,0 +1,22 @@
+package Utility;
+
+/**
+ * Перечисление типов данных, на которые разделяются строки входных файлов.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public enum DataType {
+    /**
+     * Целое число, помещающееся в {@code long}.
+     */
+    INTEGER,
+    /**
+     * Вещественное число.
+     */
+    FLOAT,
+    /**
+     * Строка, не являющаяся числом.
+     */
+    STRING
+}
@@ -1,12 +1,37 @@
 package Utility;
 
+import Buffers.DoubleColumn;
+import Buffers.LineArena;
+import Buffers.LongColumn;
+import Buffers.TypedLines;
+import Engine.FileSink;
+import Engine.FilterEngine;
 import Exceptions.IllegalKeyException;
 import Exceptions.MissingFilesException;
+import Managers.ByteLineWriter;
+import Managers.DataWriter;
 import Managers.FileManager;
+import Managers.FollowedFile;
+import Managers.MappedLineReader;
+import Managers.MetricsManager;
+import Managers.OutputSorting;
+import Managers.Source;
 import Managers.StatisticsManager;
+import Managers.StatisticsSidecar;
+import Statistics.DistinctCounter;
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
 
-import java.math.BigInteger;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import javax.management.JMException;
 
 /**
  * Предназначен для фильтрации данных из файлов по типам, с возможностью получения
@@ -16,6 +41,12 @@ import java.util.*;
  * @version 1.0
  */
 public class Filter extends Utilite {
+    //Пауза в миллисекундах между проверками новых данных, когда файлы не дописываются
+    private static final long FOLLOW_POLL_MILLIS = 100;
+    //Ключи, за которыми следует значение
+    public static final List<String> VALUE_KEYS = List.of("-p", "-o", "--threads", "--queue", "--batch", "--top",
+            "--precision", "--metrics", "--sort-memory");
+
     //Файловый менеджер
     private FileManager fileManager;
     //Консоль, в которую выводятся информация и ошибки
@@ -23,6 +54,8 @@ public class Filter extends Utilite {
     //Список параметров, указанных при запуске программы
     private List<String> parametres;
 
+    //Флаг разбора параметров запуска
+    private boolean parsed = false;
     //Список параметров фильтра
     private List<String> keys = new ArrayList<>();
     //Префикс выходных файлов
@@ -33,18 +66,46 @@ public class Filter extends Utilite {
     private List<String> files = new ArrayList<>();
     //Флаг дописывания в конец файла
     private boolean append = false;
+    //Названия выходных файлов
+    private String integersFile = "integers.txt";
+    private String floatsFile = "floats.txt";
+    private String stringsFile = "strings.txt";
+    //Количество потоков, читающих входные файлы
+    private int threads = 1;
+    //Наибольшее количество пакетов строк в каждой очереди конвейера
+    private int queueSize = 16;
+    //Количество строк в пакете конвейера
+    private int batchSize = 8192;
+    //Количество выводимых самых частых строк
+    private int top = FilterEngine.DEFAULT_TOP;
+    //Точность подсчета различных строк
+    private int precision = FilterEngine.DEFAULT_PRECISION;
+    //Файл сводки показателей выполнения; "-" - вывод в консоль
+    private String metricsFile = null;
+    //Объем памяти для упорядочивания каждого выходного файла в мегабайтах
+    private int sortMemory = OutputSorting.DEFAULT_MEMORY_MB;
+    //Параметры упорядочивания выходных файлов или null, если данные записываются в порядке чтения
+    private OutputSorting sorting = null;
 
-    //Список со строковыми данными
-    private List<String> strings = new ArrayList<>();
-    //Список с целочисленными данными
-    private List<BigInteger> integers = new ArrayList<>();
-    //Список с вещественными данными
-    private List<Double> floats = new ArrayList<>();
+    //Хранилище строковых данных
+    private LineArena strings = new LineArena();
+    //Массив с целочисленными данными
+    private LongColumn integers = new LongColumn();
+    //Массив с вещественными данными
+    private DoubleColumn floats = new DoubleColumn();
 
-    //Утилита определения типов данных
-    private TypeChecker typeChecker = TypeChecker.getInstance();
+    //Утилита определения типов данных с подсчетом строк каждого типа
+    private ClassifySampler classifier = new ClassifySampler();
+    //Результат разбора очередной строки, переиспользуемый для всех строк
+    private ParsedValue parsedValue = new ParsedValue();
     //Утилита статистики
     private StatisticsManager statisticsManager = StatisticsManager.getInstance();
+    //Сборщик показателей выполнения; собирает показатели, только если они запрошены
+    private MetricsManager metrics = MetricsManager.disabled();
+    //Хранилища накопленной статистики выходных файлов, используются с ключом -c
+    private StatisticsSidecar integersSidecar;
+    private StatisticsSidecar floatsSidecar;
+    private StatisticsSidecar stringsSidecar;
 
     /**
      * Создае утилиту, сортирующую содержимое файлов.
@@ -67,7 +128,10 @@ public class Filter extends Utilite {
      * @throws MissingFilesException выбрасывается в случае отсутствия введенных пользователем названий файлов
      */
     private void sortArgs() throws IllegalKeyException, MissingFilesException {
-        List<String> availableKeys = Arrays.asList("-p", "-s", "-f", "-o", "-a");
+        List<String> availableKeys = Arrays.asList("-p", "-s", "-f", "-q", "-d", "-c", "-o", "-a", "--stream", "--threads",
+                "--mmap", "--pipeline", "--queue", "--batch", "--top", "--precision", "--watch",
+                "--follow", "--gzip", "--binary", "--metrics", "--jmx", "--local", "--sort", "--unique",
+                "--sort-memory");
         Iterator<String> iterator = parametres.iterator();
         while (iterator.hasNext()) {
             String param = iterator.next();
@@ -77,6 +141,23 @@ public class Filter extends Utilite {
                         prefix = iterator.next();
                     } else if (param.equals("-o")) {
                         filepath = iterator.next();
+                    } else if (param.equals("--threads")) {
+                        threads = parseCount(iterator.next(), "Некорректное количество потоков.");
+                    } else if (param.equals("--queue")) {
+                        queueSize = parseCount(iterator.next(), "Некорректный размер очереди.");
+                    } else if (param.equals("--batch")) {
+                        batchSize = parseCount(iterator.next(), "Некорректный размер пакета.");
+                    } else if (param.equals("--top")) {
+                        top = parseCount(iterator.next(), "Некорректное количество частых строк.");
+                    } else if (param.equals("--precision")) {
+                        precision = parseCount(iterator.next(), "Некорректная точность подсчета уникальных строк.");
+                        if (precision < DistinctCounter.MIN_PRECISION || precision > DistinctCounter.MAX_PRECISION) {
+                            throw new IllegalKeyException("Некорректная точность подсчета уникальных строк.");
+                        }
+                    } else if (param.equals("--metrics")) {
+                        metricsFile = iterator.next();
+                    } else if (param.equals("--sort-memory")) {
+                        sortMemory = parseCount(iterator.next(), "Некорректный объем памяти сортировки.");
                     } else keys.add(param);
                 } else throw new IllegalKeyException("Введен незнакомый аргумент.");
             } else files.add(param);
@@ -84,6 +165,49 @@ public class Filter extends Utilite {
         if (files.size() == 0) {
             throw new MissingFilesException("Не введены названия файлов.");
         }
+        if (keys.contains("--binary")) {
+            integersFile = "integers.bin";
+            floatsFile = "floats.bin";
+        }
+        if (keys.contains("--gzip")) {
+            integersFile += ".gz";
+            floatsFile += ".gz";
+            stringsFile += ".gz";
+        }
+        parsed = true;
+    }
+
+    /**
+     * Метод вызывается для получения путей к выходным файлам, в которые запишет данные сортировка.
+     * Файлы накопленной статистики создаются рядом с выходными файлами, поэтому отдельно не перечисляются.
+     *
+     * @return пути к файлам целых чисел, вещественных чисел и строк
+     * @throws IllegalKeyException    выбрасывается в случае ввода неизвестного ключа
+     * @throws MissingFilesException  выбрасывается в случае отсутствия введенных пользователем названий файлов
+     * @throws NoSuchElementException выбрасывается в случае отсутствия значения ключа
+     */
+    public List<String> getOutputFiles() throws IllegalKeyException, MissingFilesException {
+        if (!parsed) sortArgs();
+        return List.of(fileManager.resolvePath(filepath, prefix, integersFile),
+                fileManager.resolvePath(filepath, prefix, floatsFile),
+                fileManager.resolvePath(filepath, prefix, stringsFile));
+    }
+
+    /**
+     * Метод вызывается для разбора числового значения параметра.
+     *
+     * @param value   значение параметра
+     * @param message сообщение об ошибке
+     * @return значение параметра
+     * @throws IllegalKeyException выбрасывается в случае, если значение не является положительным целым числом
+     */
+    private int parseCount(String value, String message) throws IllegalKeyException {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) return result;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalKeyException(message);
     }
 
     /**
@@ -115,51 +239,713 @@ public class Filter extends Utilite {
     }
 
     /**
-     * Метод вызывается для сортировки данных по типам.
+     * Метод вызывается для проверки, читаются ли файлы отображением в память.
+     * Байты входных файлов разбираются как UTF-8, поэтому режим доступен только при этой кодировке по умолчанию.
+     * Сжатые файлы отобразить в память нельзя, поэтому со сжатыми входными или выходными файлами режим не используется,
+     * как и с двоичными или упорядочиваемыми выходными файлами, в которые числа записываются не байтами входных файлов.
+     *
+     * @return {@code true}, если указан ключ {@code --mmap}, кодировка по умолчанию - UTF-8, файлы не сжаты
+     * и выходные файлы текстовые и не упорядочиваются
+     */
+    private boolean isMapped() {
+        return keys.contains("--mmap") && Charset.defaultCharset().equals(StandardCharsets.UTF_8)
+                && !keys.contains("--gzip") && !keys.contains("--binary") && sorting == null
+                && files.stream().noneMatch(FileManager::isCompressed);
+    }
+
+    /**
+     * Метод вызывается для параллельной сортировки данных по типам.
+     * Каждый файл, а большие файлы - каждая их часть, читается и классифицируется в своем потоке,
+     * после чего результаты объединяются в том же порядке, в котором строки читаются последовательно:
+     * по одной строке из каждого файла по очереди.
+     */
+    private void sortDataParallel() {
+        List<List<TypedLines>> parts = new ArrayList<>();
+        List<ClassifySampler> classifiers = new ArrayList<>();
+        fileManager.readFiles(files, threads, (file, chunk) -> {
+            if (file == parts.size()) parts.add(new ArrayList<>());
+            TypedLines part = new TypedLines();
+            ParsedValue value = new ParsedValue();
+            ClassifySampler chunkClassifier = new ClassifySampler();
+            parts.get(file).add(part);
+            classifiers.add(chunkClassifier);
+            return e -> {
+                switch (chunkClassifier.classify(e, value)) {
+                    case INTEGER:
+                        part.addInteger(value.getLong());
+                        break;
+                    case FLOAT:
+                        part.addFloat(value.getDouble());
+                        break;
+                    case STRING:
+                        part.addString(e);
+                        break;
+                }
+            };
+        });
+        for (ClassifySampler chunkClassifier : classifiers) {
+            chunkClassifier.report(metrics);
+        }
+        mergeRoundRobin(parts);
+    }
+
+    /**
+     * Метод вызывается для объединения классифицированных строк нескольких файлов.
+     * На каждом шаге берется очередная строка каждого файла, пока строки не закончатся во всех файлах.
      *
-     * @param data список входных данных
+     * @param parts классифицированные части файлов; файлы и части внутри файла идут в исходном порядке
+     */
+    private void mergeRoundRobin(List<List<TypedLines>> parts) {
+        List<PartsCursor> cursors = new ArrayList<>();
+        for (List<TypedLines> file : parts) {
+            cursors.add(new PartsCursor(file));
+        }
+        boolean hasMoreLines;
+        do {
+            hasMoreLines = false;
+            for (PartsCursor cursor : cursors) {
+                if (cursor.moveNext()) {
+                    hasMoreLines = true;
+                }
+            }
+        } while (hasMoreLines);
+    }
+
+    /**
+     * Курсор по классифицированным строкам одного файла, разбитого на части.
      */
-    private void sortData(List<String> data) {
+    private class PartsCursor {
+        //Части файла в исходном порядке
+        private final List<TypedLines> parts;
+        //Номер текущей части
+        private int part = 0;
+        //Номер следующей строки в текущей части
+        private int line = 0;
+        //Номера следующих значений каждого типа в текущей части
+        private int integer = 0;
+        private int number = 0;
+        private int string = 0;
+
+        /**
+         * Создает курсор по частям файла.
+         *
+         * @param parts части файла в исходном порядке
+         */
+        PartsCursor(List<TypedLines> parts) {
+            this.parts = parts;
+        }
 
-        for (var e : data) {
-            switch (typeChecker.determineType(e)) {
-                case "Integer":
-                    integers.add(new BigInteger(e));
+        /**
+         * Переносит следующую строку файла в список данных ее типа.
+         *
+         * @return {@code false}, если строки файла закончились
+         */
+        boolean moveNext() {
+            while (part < parts.size() && line == parts.get(part).size()) {
+                // Строки прочитанной части уже перенесены в общее хранилище
+                parts.get(part).getStrings().release();
+                part++;
+                line = integer = number = string = 0;
+            }
+            if (part == parts.size()) return false;
+            TypedLines current = parts.get(part);
+            switch (current.getType(line++)) {
+                case INTEGER:
+                    integers.add(current.getIntegers().get(integer++));
                     break;
-                case "Float":
-                    floats.add(Double.parseDouble(e));
+                case FLOAT:
+                    floats.add(current.getFloats().get(number++));
                     break;
-                case "String":
-                    strings.add(e);
+                case STRING:
+                    strings.add(current.getStrings(), string++);
                     break;
             }
+            return true;
         }
+    }
 
+    /**
+     * Метод вызывается для потоковой сортировки данных по типам движком {@link FilterEngine}.
+     * Каждая считанная строка сразу записывается в выходной файл своего типа и учитывается в статистике,
+     * поэтому объем занимаемой памяти не зависит от размера входных файлов.
+     */
+    private void solveStream() {
+        IntegerStats integerStats = createIntegerStats();
+        FloatStats floatStats = createFloatStats();
+        StringStats stringStats = createStringStats();
+        List<Source> sources = new ArrayList<>();
+        for (String file : files) {
+            sources.add(Source.of(file));
+        }
+        FilterEngine engine = new FilterEngine(keys.contains("-q"), keys.contains("-d"), precision, top, console);
+        List<StatisticsSidecar> sidecars = keys.contains("-c")
+                ? List.of(integersSidecar, floatsSidecar, stringsSidecar)
+                : List.of();
+        FileSink sink = new FileSink(console, filepath, prefix, integersFile, floatsFile, stringsFile, append, sorting,
+                sidecars);
+        try {
+            engine.run(sources, sink, integerStats, floatStats, stringStats);
+            printStatistics(integerStats, floatStats, stringStats);
+        } finally {
+            try {
+                sink.close();
+            } catch (IOException ignored) {
+                // Ошибки записи уже выведены в консоль
+            }
+        }
+        saveStatistics(integerStats, floatStats, stringStats);
     }
 
     /**
-     * Метод вызывается для выполнения сортировки содержимого файлов по типам с возможным
-     * получением статистики и записью данных в файлы.
+     * Метод вызывается для создания обработчика потоковой сортировки: каждая классифицированная строка
+     * учитывается в статистике и сразу записывается в выходной файл своего типа.
+     *
+     * @param integerStats   статистика по целым числам
+     * @param floatStats     статистика по вещественным числам
+     * @param stringStats    статистика по строкам
+     * @param integersWriter писатель целых чисел
+     * @param floatsWriter   писатель вещественных чисел
+     * @param stringsWriter  писатель строк
+     * @return обработчик, принимающий тип строки и ее текст
      */
-    public void solve() {
+    private BiConsumer<DataType, String> streamHandler(IntegerStats integerStats, FloatStats floatStats,
+                                                       StringStats stringStats, DataWriter integersWriter,
+                                                       DataWriter floatsWriter, DataWriter stringsWriter) {
+        return (type, e) -> {
+            switch (type) {
+                case INTEGER:
+                    long integer = parsedValue.getLong();
+                    integerStats.add(integer);
+                    integersWriter.write(integer);
+                    break;
+                case FLOAT:
+                    double number = parsedValue.getDouble();
+                    floatStats.add(number);
+                    floatsWriter.write(number);
+                    break;
+                case STRING:
+                    stringStats.add(e);
+                    stringsWriter.write(e);
+                    break;
+            }
+        };
+    }
+
+    /**
+     * Метод вызывается для отслеживания директорий, названия которых переданы вместо входных файлов.
+     * Каждый новый файл сортируется потоково и дописывается в выходные файлы, статистика накапливается
+     * по всем обработанным файлам и печатается по команде {@code stats} и при завершении.
+     * С ключом {@code -c} статистика сохраняется после каждого файла и продолжается после перезапуска.
+     */
+    private void solveWatch() {
+        IntegerStats integerStats = createIntegerStats();
+        FloatStats floatStats = createFloatStats();
+        StringStats stringStats = createStringStats();
+        List<String> outputs = new ArrayList<>();
+        for (String fileName : Arrays.asList(integersFile, floatsFile, stringsFile)) {
+            String output = fileManager.resolvePath(filepath, prefix, fileName);
+            outputs.add(output);
+            outputs.add(output + StatisticsSidecar.EXTENSION);
+            outputs.add(output + StatisticsSidecar.EXTENSION + ".tmp");
+        }
+        Watcher watcher = new Watcher(console, files, fileManager.resolvePath(filepath, prefix, "watch.journal"), outputs);
         try {
-            sortArgs();
-            sortData(fileManager.readFiles(files));
-            if (keys.contains("-f")) {
-                console.print(statisticsManager.getFullIntegersStatistics(integers));
-                console.print(statisticsManager.getFullFloatsStatistics(floats));
-                console.print(statisticsManager.getFullStringStatistics(strings));
-
-            } else if (keys.contains("-s")) {
-                console.print(statisticsManager.getShortNumberStatistics(integers));
-                console.print(statisticsManager.getShortNumberStatistics(floats));
-                console.print(statisticsManager.getShortStringStatistics(strings));
+            watcher.run((file, offset, progress) -> processWatched(file, offset, progress, integerStats, floatStats,
+                            stringStats),
+                    () -> printRunningStatistics(integerStats, floatStats, stringStats));
+        } catch (IOException e) {
+            console.printError("не удалось отслеживать директорию " + e.getMessage() + ".");
+        }
+        printRunningStatistics(integerStats, floatStats, stringStats);
+    }
+
+    /**
+     * Метод вызывается для потоковой сортировки файлов, которые продолжают дописываться, как в {@code tail -F}.
+     * Файлы не закрываются при достижении конца: новые байты читаются пакетами, строки сразу классифицируются
+     * в открытые выходные файлы, которые сбрасываются на диск после каждого пакета, а статистика обновляется
+     * по мере поступления строк и печатается по команде {@code stats} и при завершении командой {@code exit}.
+     * При завершении незавершенные последние строки файлов записываются как обычные строки.
+     * Если программа завершается сигналом, например без консоли, из которой читаются команды, чтение
+     * останавливается так же, как по команде {@code exit}: выходные файлы закрываются, статистика сохраняется.
+     */
+    private void solveFollow() {
+        IntegerStats integerStats = createIntegerStats();
+        FloatStats floatStats = createFloatStats();
+        StringStats stringStats = createStringStats();
+        List<FollowedFile> followed = new ArrayList<>();
+        for (String file : files) {
+            followed.add(fileManager.follow(file));
+        }
+        DataWriter integersWriter = fileManager.openColumnWriter(filepath, prefix, integersFile, append, DataType.INTEGER);
+        DataWriter floatsWriter = fileManager.openColumnWriter(filepath, prefix, floatsFile, append, DataType.FLOAT);
+        DataWriter stringsWriter = fileManager.openWriter(filepath, prefix, stringsFile, append);
+        BiConsumer<DataType, String> handler = streamHandler(integerStats, floatStats, stringStats,
+                integersWriter, floatsWriter, stringsWriter);
+        Consumer<String> consumer = e -> handler.accept(classifier.classify(e, parsedValue), e);
+        ConsoleCommands commands = new ConsoleCommands(console);
+        commands.start();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Thread reader = Thread.currentThread();
+        Thread hook = new Thread(() -> {
+            // Чтение завершается в своем потоке, чтобы выходные файлы не закрывались во время записи
+            stopped.set(true);
+            try {
+                reader.join();
+            } catch (InterruptedException ignored) {
+            }
+        }, "follow-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        console.println("Чтение файлов продолжается по мере их дописывания. Команды: stats - статистика, exit - завершение.");
+        try {
+            while (!followed.isEmpty() && !stopped.get()) {
+                long read = 0;
+                Iterator<FollowedFile> iterator = followed.iterator();
+                while (iterator.hasNext()) {
+                    FollowedFile file = iterator.next();
+                    try {
+                        read += file.poll(consumer);
+                    } catch (IOException e) {
+                        console.printError("возникла ошибка чтения файла " + file.getFileName() + ".");
+                        closeFollowed(file);
+                        iterator.remove();
+                    }
+                }
+                if (read > 0) {
+                    integersWriter.flush();
+                    floatsWriter.flush();
+                    stringsWriter.flush();
+                } else {
+                    Thread.sleep(FOLLOW_POLL_MILLIS);
+                }
+                String command;
+                boolean exit = false;
+                while ((command = commands.poll()) != null) {
+                    if (command.equals("exit")) {
+                        exit = true;
+                    } else if (command.equals("stats")) {
+                        printRunningStatistics(integerStats, floatStats, stringStats);
+                    } else if (!command.isEmpty()) {
+                        console.printError("неизвестная команда " + command + ".");
+                    }
+                }
+                if (exit) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (FollowedFile file : followed) {
+                file.finish(consumer);
+                closeFollowed(file);
+            }
+            classifier.report(metrics);
+            integersWriter.close();
+            floatsWriter.close();
+            stringsWriter.close();
+            printRunningStatistics(integerStats, floatStats, stringStats);
+            saveStatistics(integerStats, floatStats, stringStats);
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException ignored) {
+                // JVM уже завершается, и обработчик ждет окончания чтения
             }
+        }
+    }
+
+    /**
+     * Метод вызывается для закрытия дописываемого входного файла.
+     *
+     * @param file входной файл
+     */
+    private void closeFollowed(FollowedFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            console.printError("Ошибка закрытия файла.");
+        }
+    }
+
+    /**
+     * Метод вызывается для потоковой сортировки нового или дописанного файла отслеживаемой директории,
+     * начиная с позиции, до которой файл уже обработан.
+     * Выходные файлы открываются на дописывание и закрываются после файла, чтобы записанные строки
+     * сразу были доступны другим программам. Если чтение прервано ошибкой, уже прочитанные строки остаются
+     * в выходных файлах и статистике, а позиция после них передается наблюдателю.
+     *
+     * @param file         путь к файлу
+     * @param offset       позиция в байтах, с которой начинается чтение
+     * @param progress     получает позицию после каждой записанной строки
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     * @return {@code true}, если файл прочитан полностью
+     */
+    private boolean processWatched(String file, long offset, LongConsumer progress, IntegerStats integerStats,
+                                   FloatStats floatStats, StringStats stringStats) {
+        long[] lines = {0};
+        boolean complete = true;
+        try (DataWriter integersWriter = fileManager.openColumnWriter(filepath, prefix, integersFile, true,
+                DataType.INTEGER);
+             DataWriter floatsWriter = fileManager.openColumnWriter(filepath, prefix, floatsFile, true, DataType.FLOAT);
+             DataWriter stringsWriter = fileManager.openWriter(filepath, prefix, stringsFile, true)) {
+            BiConsumer<DataType, String> handler = streamHandler(integerStats, floatStats, stringStats,
+                    integersWriter, floatsWriter, stringsWriter);
+            progress.accept(fileManager.readFile(file, offset, (line, position) -> {
+                handler.accept(classifier.classify(line, parsedValue), line);
+                lines[0]++;
+                progress.accept(position);
+            }));
+        } catch (IOException e) {
+            console.printError("не удалось прочитать файл " + file + ".");
+            complete = false;
+        } finally {
+            classifier.report(metrics);
+        }
+        if (lines[0] > 0 || complete) saveStatistics(integerStats, floatStats, stringStats);
+        if (complete) console.println("Обработан файл " + file + ", строк: " + lines[0] + ".");
+        return complete;
+    }
+
+    /**
+     * Метод вызывается для печати статистики, накапливаемой при отслеживании директорий или дописываемых файлов.
+     * Если не указан ни {@code -f}, ни {@code -s}, печатается краткая статистика.
+     *
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     */
+    private void printRunningStatistics(IntegerStats integerStats, FloatStats floatStats, StringStats stringStats) {
+        if (!keys.contains("-f") && !keys.contains("-s")) {
+            console.print(statisticsManager.getShortNumberStatistics(integerStats));
+            console.print(statisticsManager.getShortNumberStatistics(floatStats));
+            console.print(statisticsManager.getShortStringStatistics(stringStats));
+        }
+        printStatistics(integerStats, floatStats, stringStats);
+    }
+
+    /**
+     * Метод вызывается для потоковой сортировки файлов, отображенных в память.
+     * Строки и целые числа в стандартной записи копируются в выходные файлы байтами входных файлов,
+     * без создания {@link String}; вещественные числа записываются в нормализованном виде.
+     */
+    private void solveStreamMapped() {
+        IntegerStats integerStats = createIntegerStats();
+        FloatStats floatStats = createFloatStats();
+        StringStats stringStats = createStringStats();
+        ByteLineWriter integersWriter = fileManager.openByteWriter(filepath, prefix, integersFile, append);
+        ByteLineWriter floatsWriter = fileManager.openByteWriter(filepath, prefix, floatsFile, append);
+        ByteLineWriter stringsWriter = fileManager.openByteWriter(filepath, prefix, stringsFile, append);
+        try {
+            fileManager.readFilesMapped(files, (buffer, from, to) -> {
+                switch (classifier.classify(buffer, from, to, parsedValue)) {
+                    case INTEGER:
+                        long integer = parsedValue.getLong();
+                        integerStats.add(integer);
+                        integersWriter.writeInteger(integer, buffer, from, to);
+                        break;
+                    case FLOAT:
+                        double number = parsedValue.getDouble();
+                        floatStats.add(number);
+                        floatsWriter.writeFloat(number);
+                        break;
+                    case STRING:
+                        int length = MappedLineReader.utf16Length(buffer, from, to);
+                        if (length >= 0 && !stringStats.isCountingDistinct()) {
+                            stringStats.add(length);
+                            stringsWriter.write(buffer, from, to);
+                        } else {
+                            // Текст нужен для подсчета уникальных строк, а некорректные байты заменяются
+                            // при декодировании, поэтому такую строку записываем после него
+                            String e = MappedLineReader.decode(buffer, from, to);
+                            stringStats.add(e);
+                            if (length >= 0) {
+                                stringsWriter.write(buffer, from, to);
+                            } else {
+                                stringsWriter.write(e);
+                            }
+                        }
+                        break;
+                }
+            });
+            classifier.report(metrics);
+            printStatistics(integerStats, floatStats, stringStats);
+        } finally {
+            integersWriter.close();
+            floatsWriter.close();
+            stringsWriter.close();
+        }
+        saveStatistics(integerStats, floatStats, stringStats);
+    }
+
+    /**
+     * Метод вызывается для потоковой сортировки данных конвейером, в котором чтение, классификация
+     * и запись каждого типа выполняются одновременно в отдельных потоках.
+     */
+    private void solvePipeline() {
+        IntegerStats integerStats = createIntegerStats();
+        FloatStats floatStats = createFloatStats();
+        StringStats stringStats = createStringStats();
+        DataWriter integersWriter = fileManager.openColumnWriter(filepath, prefix, integersFile, append, DataType.INTEGER);
+        DataWriter floatsWriter = fileManager.openColumnWriter(filepath, prefix, floatsFile, append, DataType.FLOAT);
+        DataWriter stringsWriter = fileManager.openWriter(filepath, prefix, stringsFile, append);
+        try {
+            new Pipeline(fileManager, queueSize, batchSize).run(files, integerStats, floatStats, stringStats,
+                    integersWriter, floatsWriter, stringsWriter);
+            printStatistics(integerStats, floatStats, stringStats);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            console.printError("Обработка прервана.");
+            return;
+        } finally {
+            integersWriter.close();
+            floatsWriter.close();
+            stringsWriter.close();
+        }
+        saveStatistics(integerStats, floatStats, stringStats);
+    }
+
+    /**
+     * Метод вызывается для печати в консоль статистики, накопленной за один проход по данным,
+     * распределения чисел, если указан ключ {@code -q}, и уникальных строк, если указан ключ {@code -d}.
+     *
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     */
+    private void printStatistics(IntegerStats integerStats, FloatStats floatStats, StringStats stringStats) {
+        long start = System.nanoTime();
+        if (keys.contains("-f")) {
+            console.print(statisticsManager.getFullIntegersStatistics(integerStats));
+            console.print(statisticsManager.getFullFloatsStatistics(floatStats));
+            console.print(statisticsManager.getFullStringStatistics(stringStats));
+        } else if (keys.contains("-s")) {
+            console.print(statisticsManager.getShortNumberStatistics(integerStats));
+            console.print(statisticsManager.getShortNumberStatistics(floatStats));
+            console.print(statisticsManager.getShortStringStatistics(stringStats));
+        }
+        console.print(statisticsManager.getQuantileIntegersStatistics(integerStats));
+        console.print(statisticsManager.getQuantileFloatsStatistics(floatStats));
+        console.print(statisticsManager.getDistinctStringStatistics(stringStats, top));
+        metrics.addStage(MetricsManager.Stage.STATISTICS, start);
+    }
+
+    /**
+     * Метод вызывается для создания статистики по целым числам.
+     * С ключом {@code -c} статистика продолжает накопленную по выходному файлу.
+     *
+     * @return статистика по целым числам
+     */
+    private IntegerStats createIntegerStats() {
+        if (keys.contains("-c")) return integersSidecar.loadIntegers(keys.contains("-q"));
+        return new IntegerStats(keys.contains("-q"));
+    }
+
+    /**
+     * Метод вызывается для создания статистики по вещественным числам.
+     * С ключом {@code -c} статистика продолжает накопленную по выходному файлу.
+     *
+     * @return статистика по вещественным числам
+     */
+    private FloatStats createFloatStats() {
+        if (keys.contains("-c")) return floatsSidecar.loadFloats(keys.contains("-q"));
+        return new FloatStats(keys.contains("-q"));
+    }
+
+    /**
+     * Метод вызывается для создания статистики по строкам с подсчетом уникальных строк, если указан ключ {@code -d}.
+     * С ключом {@code -c} статистика продолжает накопленную по выходному файлу.
+     *
+     * @return статистика по строкам
+     */
+    private StringStats createStringStats() {
+        if (keys.contains("-c")) {
+            return stringsSidecar.loadStrings(keys.contains("-d"), precision, heavyHittersCapacity());
+        }
+        return keys.contains("-d") ? new StringStats(precision, heavyHittersCapacity()) : new StringStats();
+    }
+
+    /**
+     * Метод вызывается для сохранения накопленной статистики рядом с выходными файлами, если указан ключ {@code -c}.
+     * Вызывается после закрытия выходных файлов, чтобы вместе со статистикой сохранился их итоговый размер.
+     *
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     */
+    private void saveStatistics(IntegerStats integerStats, FloatStats floatStats, StringStats stringStats) {
+        if (!keys.contains("-c")) return;
+        integersSidecar.save(integerStats);
+        floatsSidecar.save(floatStats);
+        stringsSidecar.save(stringStats);
+    }
+
+    /**
+     * Метод вызывается для определения количества хранимых частых строк.
+     *
+     * @return наибольшее количество хранимых частых строк
+     */
+    private int heavyHittersCapacity() {
+        return FilterEngine.heavyHittersCapacity(top);
+    }
+
+    /**
+     * Метод вызывается для записи отсортированных данных в выходные файлы.
+     */
+    private void writeData() {
+        if (keys.contains("-a")) append = true;
+        fileManager.write(integers, filepath, prefix, integersFile, append);
+        fileManager.write(floats, filepath, prefix, floatsFile, append);
+        fileManager.write(strings, filepath, prefix, stringsFile, append);
+        strings.release();
+        append = false;
+    }
+
+    /**
+     * Метод вызывается для вывода накопленной статистики и записи отсортированных данных.
+     * Статистика прошлых запусков загружается из файлов рядом с выходными файлами до записи,
+     * дополняется данными этого запуска и сохраняется после записи.
+     */
+    private void solveCumulative() {
+        long start = System.nanoTime();
+        IntegerStats integerStats = createIntegerStats();
+        for (int i = 0; i < integers.size(); i++) {
+            integerStats.add(integers.get(i));
+        }
+        FloatStats floatStats = createFloatStats();
+        for (int i = 0; i < floats.size(); i++) {
+            floatStats.add(floats.get(i));
+        }
+        StringStats stringStats = createStringStats();
+        for (int i = 0; i < strings.size(); i++) {
+            if (stringStats.isCountingDistinct()) {
+                stringStats.add(strings.get(i));
+            } else {
+                stringStats.add(strings.length(i));
+            }
+        }
+        metrics.addStage(MetricsManager.Stage.STATISTICS, start);
+        printStatistics(integerStats, floatStats, stringStats);
+        writeData();
+        saveStatistics(integerStats, floatStats, stringStats);
+    }
+
+    /**
+     * Метод вызывается для сортировки содержимого файлов по типам в режиме, выбранном ключами,
+     * с возможным получением статистики и записью данных в файлы.
+     */
+    private void sortFiles() {
+        // Отслеживаемые файлы записываются по мере чтения, поэтому не упорядочиваются
+        if ((keys.contains("--sort") || keys.contains("--unique"))
+                && !keys.contains("--watch") && !keys.contains("--follow")) {
+            sorting = new OutputSorting(keys.contains("--unique"), sortMemory);
+            fileManager.setSorting(sorting);
+        }
+        if (keys.contains("-c")) {
+            // При отслеживании директорий выходные файлы всегда дописываются
+            boolean appending = keys.contains("-a") || keys.contains("--watch");
+            integersSidecar = fileManager.openSidecar(filepath, prefix, integersFile, appending);
+            floatsSidecar = fileManager.openSidecar(filepath, prefix, floatsFile, appending);
+            stringsSidecar = fileManager.openSidecar(filepath, prefix, stringsFile, appending);
+        }
+        if (keys.contains("--watch")) {
+            solveWatch();
+            return;
+        }
+        if (keys.contains("--follow")) {
             if (keys.contains("-a")) append = true;
-            fileManager.write(integers, filepath, prefix, "integers.txt", append);
-            fileManager.write(floats, filepath, prefix, "floats.txt", append);
-            fileManager.write(strings, filepath, prefix, "strings.txt", append);
+            solveFollow();
             append = false;
+            return;
+        }
+        if (keys.contains("--pipeline")) {
+            if (keys.contains("-a")) append = true;
+            solvePipeline();
+            append = false;
+            return;
+        }
+        // Без параллельного чтения данные не нужно накапливать: они сортируются потоково
+        if (keys.contains("--stream") || threads == 1) {
+            if (keys.contains("-a")) append = true;
+            if (isMapped()) {
+                solveStreamMapped();
+            } else {
+                solveStream();
+            }
+            append = false;
+            return;
+        }
+        sortDataParallel();
+        if (keys.contains("-c")) {
+            solveCumulative();
+            return;
+        }
+        long start = System.nanoTime();
+        if (keys.contains("-f")) {
+            console.print(statisticsManager.getFullIntegersStatistics(integers));
+            console.print(statisticsManager.getFullFloatsStatistics(floats));
+            console.print(statisticsManager.getFullStringStatistics(strings));
+
+        } else if (keys.contains("-s")) {
+            console.print(statisticsManager.getShortNumberStatistics(integers));
+            console.print(statisticsManager.getShortNumberStatistics(floats));
+            console.print(statisticsManager.getShortStringStatistics(strings));
+        }
+        if (keys.contains("-q")) {
+            console.print(statisticsManager.getQuantileIntegersStatistics(integers));
+            console.print(statisticsManager.getQuantileFloatsStatistics(floats));
+        }
+        if (keys.contains("-d")) {
+            console.print(statisticsManager.getDistinctStringStatistics(strings, precision,
+                    heavyHittersCapacity(), top));
+        }
+        metrics.addStage(MetricsManager.Stage.STATISTICS, start);
+        writeData();
+    }
+
+    /**
+     * Метод вызывается для начала сбора показателей выполнения, если указан ключ {@code --metrics} или {@code --jmx}.
+     * С ключом {@code --jmx} показатели доступны во время работы под именем {@value MetricsManager#OBJECT_NAME}.
+     */
+    private void startMetrics() {
+        if (metricsFile == null && !keys.contains("--jmx")) return;
+        metrics = new MetricsManager();
+        fileManager.setMetrics(metrics);
+        metrics.start();
+        if (keys.contains("--jmx")) {
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                console.printError("не удалось зарегистрировать показатели в JMX.");
+            }
+        }
+    }
+
+    /**
+     * Метод вызывается для вывода сводки показателей выполнения в формате JSON, если указан ключ {@code --metrics}:
+     * в файл или, если вместо названия файла указан {@code -}, в консоль.
+     */
+    private void saveMetrics() {
+        if (metricsFile == null) return;
+        if (metricsFile.equals("-")) {
+            console.print(metrics.getSummaryJson());
+            return;
+        }
+        try {
+            metrics.writeJson(metricsFile);
+        } catch (IOException e) {
+            console.printError("не удалось записать показатели в файл " + metricsFile + ".");
+        }
+    }
+
+    /**
+     * Метод вызывается для выполнения сортировки содержимого файлов по типам с возможным
+     * получением статистики и записью данных в файлы.
+     */
+    public void solve() {
+        try {
+            if (!parsed) sortArgs();
+            startMetrics();
+            sortFiles();
+            saveMetrics();
 
         } catch (IllegalKeyException | MissingFilesException e) {
             console.printError(e.getMessage());
@@ -0,0 +1,55 @@
+package Utility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировки по ключу, например по пути к файлу. Блокировка существует, пока ее удерживает
+ * или ожидает хотя бы один поток, поэтому набор блокировок не растет с числом разных ключей.
+ *
+ * @param <K> тип ключа
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class KeyedLocks<K> {
+    //Блокировки ключей, которые сейчас удерживаются или ожидаются
+    private final Map<K, Entry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Захватывает блокировку ключа, ожидая ее освобождения другими потоками.
+     *
+     * @param key ключ
+     */
+    public void lock(K key) {
+        Entry entry = locks.compute(key, (k, e) -> {
+            Entry result = e == null ? new Entry() : e;
+            result.users++;
+            return result;
+        });
+        entry.lock.lock();
+    }
+
+    /**
+     * Освобождает блокировку ключа, захваченную текущим потоком, и удаляет ее, если она больше никому не нужна.
+     *
+     * @param key ключ
+     * @throws IllegalMonitorStateException если текущий поток не удерживает блокировку ключа
+     */
+    public void unlock(K key) {
+        Entry entry = locks.get(key);
+        if (entry == null) throw new IllegalMonitorStateException();
+        entry.lock.unlock();
+        locks.computeIfPresent(key, (k, e) -> --e.users == 0 ? null : e);
+    }
+
+    /**
+     * Блокировка ключа вместе с количеством потоков, которые ее удерживают или ожидают.
+     */
+    private static class Entry {
+        //Блокировка ключа
+        private final ReentrantLock lock = new ReentrantLock();
+        //Количество потоков, которые удерживают или ожидают блокировку; изменяется только при обновлении словаря
+        private int users = 0;
+    }
+}
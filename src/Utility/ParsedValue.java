@@ -0,0 +1,65 @@
+package Utility;
+
+/**
+ * Хранит результат разбора строки: ее тип и значение числа.
+ * Один объект переиспользуется для разбора множества строк, поэтому разбор не создает новых объектов.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class ParsedValue {
+    //Тип разобранных данных
+    private DataType type = DataType.STRING;
+    //Значение целого числа
+    private long longValue;
+    //Значение вещественного числа
+    private double doubleValue;
+
+    /**
+     * @return тип разобранных данных
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * @return значение целого числа, если тип данных {@link DataType#INTEGER}
+     */
+    public long getLong() {
+        return longValue;
+    }
+
+    /**
+     * @return значение вещественного числа, если тип данных {@link DataType#FLOAT}
+     */
+    public double getDouble() {
+        return doubleValue;
+    }
+
+    /**
+     * Запоминает разобранное целое число.
+     *
+     * @param value значение целого числа
+     */
+    void setInteger(long value) {
+        type = DataType.INTEGER;
+        longValue = value;
+    }
+
+    /**
+     * Запоминает разобранное вещественное число.
+     *
+     * @param value значение вещественного числа
+     */
+    void setFloat(double value) {
+        type = DataType.FLOAT;
+        doubleValue = value;
+    }
+
+    /**
+     * Запоминает, что разобранные данные являются строкой.
+     */
+    void setString() {
+        type = DataType.STRING;
+    }
+}
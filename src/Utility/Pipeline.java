@@ -0,0 +1,294 @@
+package Utility;
+
+import Buffers.DoubleColumn;
+import Buffers.LongColumn;
+import Exceptions.FilterException;
+import Managers.DataWriter;
+import Managers.FileManager;
+import Managers.MetricsManager;
+import Statistics.FloatStats;
+import Statistics.IntegerStats;
+import Statistics.StringStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Конвейер потоковой сортировки данных по типам.
+ * Чтение, классификация и запись каждого типа выполняются в отдельных потоках, связанных
+ * ограниченными очередями пакетов строк. Если запись не успевает за чтением, очереди заполняются
+ * и чтение приостанавливается, поэтому объем занимаемой памяти ограничен размером очередей.
+ * Пустой пакет в очереди означает конец данных.
+ * <p>
+ * Размеры очередей и время записи пакетов учитываются в {@link MetricsManager}.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class Pipeline {
+    //Количество этапов конвейера: чтение, классификация и запись трех типов
+    private static final int STAGES = 5;
+
+    //Файловый менеджер
+    private final FileManager fileManager;
+    //Наибольшее количество пакетов в каждой очереди
+    private final int queueSize;
+    //Количество строк в пакете
+    private final int batchSize;
+    //Сборщик показателей выполнения
+    private final MetricsManager metrics;
+
+    /**
+     * Создает конвейер.
+     *
+     * @param fileManager файловый менеджер
+     * @param queueSize   наибольшее количество пакетов в каждой очереди
+     * @param batchSize   количество строк в пакете
+     */
+    public Pipeline(FileManager fileManager, int queueSize, int batchSize) {
+        this.fileManager = fileManager;
+        this.metrics = fileManager.getMetrics();
+        this.queueSize = queueSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Сортирует строки входных файлов по типам, записывая их в выходные файлы и учитывая в статистике.
+     * Строки читаются в том же порядке, что и в {@link FileManager#readFiles(List, Consumer)}.
+     *
+     * @param files          список названий входных файлов
+     * @param integerStats   статистика по целым числам
+     * @param floatStats     статистика по вещественным числам
+     * @param stringStats    статистика по строкам
+     * @param integersWriter писатель целых чисел
+     * @param floatsWriter   писатель вещественных чисел
+     * @param stringsWriter  писатель строк
+     * @throws InterruptedException если ожидание завершения конвейера было прервано
+     * @throws FilterException      если не удалось прочитать ни одного входного файла или все они пусты
+     */
+    public void run(List<String> files, IntegerStats integerStats, FloatStats floatStats, StringStats stringStats,
+                    DataWriter integersWriter, DataWriter floatsWriter, DataWriter stringsWriter)
+            throws InterruptedException {
+        BlockingQueue<List<String>> lines = new ArrayBlockingQueue<>(queueSize);
+        BlockingQueue<LongColumn> integers = new ArrayBlockingQueue<>(queueSize);
+        BlockingQueue<DoubleColumn> floats = new ArrayBlockingQueue<>(queueSize);
+        BlockingQueue<List<String>> strings = new ArrayBlockingQueue<>(queueSize);
+        metrics.addQueue("lines", lines::size);
+        metrics.addQueue("integers", integers::size);
+        metrics.addQueue("floats", floats::size);
+        metrics.addQueue("strings", strings::size);
+        ExecutorService executor = Executors.newFixedThreadPool(STAGES);
+        try {
+            ExecutorCompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+            submit(stages, () -> {
+                read(files, lines);
+                return null;
+            });
+            submit(stages, () -> {
+                classify(lines, integers, floats, strings, integerStats, floatStats, stringStats);
+                return null;
+            });
+            submit(stages, () -> {
+                for (LongColumn batch = integers.take(); !batch.isEmpty(); batch = integers.take()) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        integersWriter.write(batch.get(i));
+                    }
+                    metrics.addStage(MetricsManager.Stage.WRITE, start);
+                }
+                return null;
+            });
+            submit(stages, () -> {
+                for (DoubleColumn batch = floats.take(); !batch.isEmpty(); batch = floats.take()) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        floatsWriter.write(batch.get(i));
+                    }
+                    metrics.addStage(MetricsManager.Stage.WRITE, start);
+                }
+                return null;
+            });
+            submit(stages, () -> {
+                for (List<String> batch = strings.take(); !batch.isEmpty(); batch = strings.take()) {
+                    long start = System.nanoTime();
+                    for (String line : batch) {
+                        stringsWriter.write(line);
+                    }
+                    metrics.addStage(MetricsManager.Stage.WRITE, start);
+                }
+                return null;
+            });
+            // Ждем завершения всех этапов; ошибка любого из них останавливает остальные
+            for (int i = 0; i < STAGES; i++) {
+                stages.take().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FilterException) throw (FilterException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Запускает этап конвейера, учитывая память, выделенную им за время работы.
+     *
+     * @param stages сервис выполнения этапов
+     * @param stage  этап
+     */
+    private void submit(ExecutorCompletionService<Void> stages, Callable<Void> stage) {
+        stages.submit(() -> {
+            long mark = metrics.allocationMark();
+            try {
+                return stage.call();
+            } finally {
+                metrics.addAllocation(mark);
+            }
+        });
+    }
+
+    /**
+     * Помещает пакет в очередь, ожидая освобождения места, и учитывает размер очереди.
+     *
+     * @param queue очередь
+     * @param name  название очереди
+     * @param batch пакет
+     * @param <T>   тип пакета
+     * @throws InterruptedException если ожидание очереди было прервано
+     */
+    private <T> void put(BlockingQueue<T> queue, String name, T batch) throws InterruptedException {
+        queue.put(batch);
+        metrics.recordQueueDepth(name, queue.size());
+    }
+
+    /**
+     * Этап чтения: считывает строки входных файлов и передает их пакетами.
+     *
+     * @param files список названий входных файлов
+     * @param lines очередь пакетов строк
+     */
+    private void read(List<String> files, BlockingQueue<List<String>> lines) {
+        LineBatcher batcher = new LineBatcher(lines);
+        fileManager.readFiles(files, batcher);
+        batcher.finish();
+    }
+
+    /**
+     * Этап классификации: определяет тип каждой строки, учитывает ее в статистике
+     * и передает пакетами на запись в файл ее типа.
+     *
+     * @param lines        очередь пакетов строк
+     * @param integers     очередь пакетов целых чисел
+     * @param floats       очередь пакетов вещественных чисел
+     * @param strings      очередь пакетов строк
+     * @param integerStats статистика по целым числам
+     * @param floatStats   статистика по вещественным числам
+     * @param stringStats  статистика по строкам
+     * @throws InterruptedException если ожидание очереди было прервано
+     */
+    private void classify(BlockingQueue<List<String>> lines, BlockingQueue<LongColumn> integers,
+                          BlockingQueue<DoubleColumn> floats, BlockingQueue<List<String>> strings,
+                          IntegerStats integerStats, FloatStats floatStats, StringStats stringStats)
+            throws InterruptedException {
+        ClassifySampler classifier = new ClassifySampler();
+        ParsedValue value = new ParsedValue();
+        LongColumn integerBatch = new LongColumn();
+        DoubleColumn floatBatch = new DoubleColumn();
+        List<String> stringBatch = new ArrayList<>();
+        for (List<String> batch = lines.take(); !batch.isEmpty(); batch = lines.take()) {
+            for (String line : batch) {
+                switch (classifier.classify(line, value)) {
+                    case INTEGER:
+                        integerStats.add(value.getLong());
+                        integerBatch.add(value.getLong());
+                        break;
+                    case FLOAT:
+                        floatStats.add(value.getDouble());
+                        floatBatch.add(value.getDouble());
+                        break;
+                    case STRING:
+                        stringStats.add(line);
+                        stringBatch.add(line);
+                        break;
+                }
+            }
+            if (integerBatch.size() >= batchSize) {
+                put(integers, "integers", integerBatch);
+                integerBatch = new LongColumn();
+            }
+            if (floatBatch.size() >= batchSize) {
+                put(floats, "floats", floatBatch);
+                floatBatch = new DoubleColumn();
+            }
+            if (stringBatch.size() >= batchSize) {
+                put(strings, "strings", stringBatch);
+                stringBatch = new ArrayList<>();
+            }
+        }
+        classifier.report(metrics);
+        if (!integerBatch.isEmpty()) put(integers, "integers", integerBatch);
+        if (!floatBatch.isEmpty()) put(floats, "floats", floatBatch);
+        if (!stringBatch.isEmpty()) put(strings, "strings", stringBatch);
+        integers.put(new LongColumn());
+        floats.put(new DoubleColumn());
+        strings.put(new ArrayList<>());
+    }
+
+    /**
+     * Собирает считанные строки в пакеты и передает заполненные пакеты в очередь.
+     */
+    private class LineBatcher implements Consumer<String> {
+        //Очередь пакетов строк
+        private final BlockingQueue<List<String>> lines;
+        //Заполняемый пакет
+        private List<String> batch = new ArrayList<>(batchSize);
+
+        /**
+         * Создает сборщик пакетов.
+         *
+         * @param lines очередь пакетов строк
+         */
+        LineBatcher(BlockingQueue<List<String>> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void accept(String line) {
+            batch.add(line);
+            if (batch.size() == batchSize) {
+                put(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        /**
+         * Передает в очередь неполный последний пакет и признак конца данных.
+         */
+        void finish() {
+            if (!batch.isEmpty()) put(batch);
+            put(new ArrayList<>());
+        }
+
+        /**
+         * Помещает пакет в очередь, ожидая освобождения места.
+         *
+         * @param batch пакет строк
+         */
+        private void put(List<String> batch) {
+            try {
+                Pipeline.this.put(lines, "lines", batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Чтение прервано.", e);
+            }
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package Utility;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Предназначен для определения типа данных, содержащегося в строке.
+ * <p>
+ * Тип определяется по тем же правилам, что и у {@link Long#parseLong(String)} и {@link Double#parseDouble(String)}:
+ * целым числом считается строка, которую принимает {@code Long.parseLong}, вещественным - строка, которую
+ * принимает {@code Double.parseDouble}, все остальное является строкой. Разбор выполняется вручную,
+ * без создания объектов и выбрасывания исключений. При передаче {@link ParsedValue} в него сохраняется
+ * значение разобранного числа, поэтому повторно разбирать строку не требуется.
+ * </p>
  *
  * @author Andrew Schmunk
  * @version 1.0
  */
 public class TypeChecker {
+    //Наибольшее количество значащих цифр, которое помещается в long без переполнения
+    private static final int MAX_SIGNIFICANT_DIGITS = 18;
+    //Степени десяти, точно представимые в double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     private static TypeChecker instance;
 
     private TypeChecker() {
     }
 
-    public static TypeChecker getInstance() {
+    public static synchronized TypeChecker getInstance() {
         if (instance == null) {
             instance = new TypeChecker();
         }
@@ -26,42 +44,542 @@ public class TypeChecker {
      * @return тип данных, содержащийся в строке
      */
     public String determineType(String input) {
-        if (isInteger(input)) {
-            return "Integer";
-        } else if (isFloat(input)) {
-            return "Float";
-        } else {
-            return "String";
+        switch (classify(input)) {
+            case INTEGER:
+                return "Integer";
+            case FLOAT:
+                return "Float";
+            default:
+                return "String";
+        }
+    }
+
+    /**
+     * Определяет тип введенных данных.
+     *
+     * @param input входные данные
+     * @return тип данных, содержащийся в строке
+     */
+    public DataType classify(String input) {
+        return classify(input, 0, input.length(), null);
+    }
+
+    /**
+     * Определяет тип введенных данных и сохраняет значение числа.
+     *
+     * @param input входные данные
+     * @param out   результат разбора
+     * @return тип данных, содержащийся в строке
+     */
+    public DataType classify(String input, ParsedValue out) {
+        return classify(input, 0, input.length(), out);
+    }
+
+    /**
+     * Определяет тип данных, содержащийся в диапазоне символов.
+     *
+     * @param input входные данные
+     * @param from  индекс первого символа диапазона
+     * @param to    индекс, следующий за последним символом диапазона
+     * @return тип данных, содержащийся в диапазоне
+     */
+    public DataType classify(CharSequence input, int from, int to) {
+        return classify(input, from, to, null);
+    }
+
+    /**
+     * Определяет тип данных, содержащийся в диапазоне символов, и сохраняет значение числа.
+     *
+     * @param input входные данные
+     * @param from  индекс первого символа диапазона
+     * @param to    индекс, следующий за последним символом диапазона
+     * @param out   результат разбора или {@code null}, если значение не требуется
+     * @return тип данных, содержащийся в диапазоне
+     */
+    public DataType classify(CharSequence input, int from, int to, ParsedValue out) {
+        if (from >= to) return string(out);
+        int i = from;
+        char c = input.charAt(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (++i == to) return string(out);
+        }
+        int digitsStart = i;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        boolean overflow = false;
+        while (i < to) {
+            c = input.charAt(i);
+            if (c < '0' || c > '9') break;
+            if (!overflow) {
+                int digit = c - '0';
+                if (result < multmin || result * 10 < limit + digit) {
+                    overflow = true;
+                } else {
+                    result = result * 10 - digit;
+                }
+            }
+            i++;
+        }
+        if (i == to && !overflow) {
+            return integer(out, negative ? result : -result);
         }
+        if (i < to && c >= 0x80) {
+            // Long.parseLong принимает цифры любых алфавитов, Double.parseDouble - только ASCII
+            return parseUnicodeInteger(input, digitsStart, to, negative, out);
+        }
+        return parseFloat(input, from, to, out);
+    }
+
+    /**
+     * Определяет тип данных, содержащийся в диапазоне байтов в кодировке UTF-8.
+     *
+     * @param input входные данные
+     * @param from  индекс первого байта диапазона
+     * @param to    индекс, следующий за последним байтом диапазона
+     * @return тип данных, содержащийся в диапазоне
+     */
+    public DataType classify(ByteBuffer input, int from, int to) {
+        return classify(input, from, to, null);
     }
 
     /**
-     * Проверяет, является ли введенная строка целым числом.
+     * Определяет тип данных, содержащийся в диапазоне байтов в кодировке UTF-8, и сохраняет значение числа.
      *
      * @param input входные данные
-     * @return true, если строка является целым числом, иначе false
+     * @param from  индекс первого байта диапазона
+     * @param to    индекс, следующий за последним байтом диапазона
+     * @param out   результат разбора или {@code null}, если значение не требуется
+     * @return тип данных, содержащийся в диапазоне
+     */
+    public DataType classify(ByteBuffer input, int from, int to, ParsedValue out) {
+        if (from >= to) return string(out);
+        int i = from;
+        int c = input.get(i) & 0xFF;
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (++i == to) return string(out);
+        }
+        int digitsStart = i;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        boolean overflow = false;
+        while (i < to) {
+            c = input.get(i) & 0xFF;
+            if (c < '0' || c > '9') break;
+            if (!overflow) {
+                int digit = c - '0';
+                if (result < multmin || result * 10 < limit + digit) {
+                    overflow = true;
+                } else {
+                    result = result * 10 - digit;
+                }
+            }
+            i++;
+        }
+        if (i == to && !overflow) {
+            return integer(out, negative ? result : -result);
+        }
+        if (i < to && c >= 0x80) {
+            return parseUnicodeInteger(input, digitsStart, to, negative, out);
+        }
+        return parseFloat(input, from, to, out);
+    }
+
+    /**
+     * Разбирает целое число, записанное цифрами произвольного алфавита.
+     *
+     * @param input    входные данные
+     * @param from     индекс первого символа после знака
+     * @param to       индекс, следующий за последним символом диапазона
+     * @param negative флаг отрицательного числа
+     * @param out      результат разбора или {@code null}
+     * @return {@link DataType#INTEGER}, если диапазон является целым числом, помещающимся в long,
+     * иначе {@link DataType#STRING}
      */
-    private boolean isInteger(String input) {
-        try {
-            Long.parseLong(input);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    private DataType parseUnicodeInteger(CharSequence input, int from, int to, boolean negative, ParsedValue out) {
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(input.charAt(i), 10);
+            if (digit < 0 || result < multmin || result * 10 < limit + digit) return string(out);
+            result = result * 10 - digit;
         }
+        return integer(out, negative ? result : -result);
     }
 
     /**
-     * Проверяет, является ли введенная строка числом с плавающей точкой.
+     * Разбирает целое число в кодировке UTF-8, записанное цифрами произвольного алфавита.
+     *
+     * @param input    входные данные
+     * @param from     индекс первого байта после знака
+     * @param to       индекс, следующий за последним байтом диапазона
+     * @param negative флаг отрицательного числа
+     * @param out      результат разбора или {@code null}
+     * @return {@link DataType#INTEGER}, если диапазон является целым числом, помещающимся в long,
+     * иначе {@link DataType#STRING}
+     */
+    private DataType parseUnicodeInteger(ByteBuffer input, int from, int to, boolean negative, ParsedValue out) {
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        int i = from;
+        while (i < to) {
+            int b = input.get(i++) & 0xFF;
+            int c;
+            if (b < 0x80) {
+                c = b;
+            } else if (b >= 0xC2 && b < 0xE0 && i < to) {
+                int b1 = input.get(i++) & 0xFF;
+                if ((b1 & 0xC0) != 0x80) return string(out);
+                c = ((b & 0x1F) << 6) | (b1 & 0x3F);
+            } else if (b >= 0xE0 && b < 0xF0 && i + 1 < to) {
+                int b1 = input.get(i++) & 0xFF;
+                int b2 = input.get(i++) & 0xFF;
+                if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80) return string(out);
+                c = ((b & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F);
+                if (c < 0x800) return string(out);
+            } else {
+                // Символы вне основной плоскости и некорректные последовательности цифрами не являются
+                return string(out);
+            }
+            int digit = Character.digit((char) c, 10);
+            if (digit < 0 || result < multmin || result * 10 < limit + digit) return string(out);
+            result = result * 10 - digit;
+        }
+        return integer(out, negative ? result : -result);
+    }
+
+    /**
+     * Разбирает число с плавающей точкой.
      *
      * @param input входные данные
-     * @return true, если строка является числом с плавающей точкой, иначе false
+     * @param from  индекс первого символа диапазона
+     * @param to    индекс, следующий за последним символом диапазона
+     * @param out   результат разбора или {@code null}
+     * @return {@link DataType#FLOAT}, если диапазон является числом с плавающей точкой, иначе {@link DataType#STRING}
      */
-    private boolean isFloat(String input) {
-        try {
-            Double.parseDouble(input);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    private DataType parseFloat(CharSequence input, int from, int to, ParsedValue out) {
+        while (from < to && input.charAt(from) <= ' ') from++;
+        while (to > from && input.charAt(to - 1) <= ' ') to--;
+        if (from == to) return string(out);
+        int i = from;
+        char c = input.charAt(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (++i == to) return string(out);
+            c = input.charAt(i);
+        }
+        if (c == 'N') {
+            return matches(input, i, to, "NaN") ? floating(out, Double.NaN) : string(out);
+        }
+        if (c == 'I') {
+            return matches(input, i, to, "Infinity")
+                    ? floating(out, negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY) : string(out);
         }
+        if (c == '0' && i + 1 < to && (input.charAt(i + 1) == 'x' || input.charAt(i + 1) == 'X')) {
+            if (!isHexTail(input, i + 2, to)) return string(out);
+            return out == null ? DataType.FLOAT
+                    : floating(out, Double.parseDouble(input.subSequence(from, to).toString()));
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean hasDigits = false;
+        while (i < to && isDigit(c = input.charAt(i))) {
+            int digit = c - '0';
+            hasDigits = true;
+            if (significant < MAX_SIGNIFICANT_DIGITS) {
+                if (mantissa != 0 || digit != 0) {
+                    mantissa = mantissa * 10 + digit;
+                    significant++;
+                }
+            } else {
+                exponent++;
+                exact &= digit == 0;
+            }
+            i++;
+        }
+        if (i < to && input.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(c = input.charAt(i))) {
+                int digit = c - '0';
+                hasDigits = true;
+                if (significant < MAX_SIGNIFICANT_DIGITS) {
+                    if (mantissa != 0 || digit != 0) {
+                        mantissa = mantissa * 10 + digit;
+                        significant++;
+                    }
+                    exponent--;
+                } else {
+                    exact &= digit == 0;
+                }
+                i++;
+            }
+        }
+        if (!hasDigits) return string(out);
+        if (i < to && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                negativeExponent = input.charAt(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int exponentValue = 0;
+            while (i < to && isDigit(c = input.charAt(i))) {
+                if (exponentValue < 100_000) exponentValue = exponentValue * 10 + (c - '0');
+                i++;
+            }
+            if (i == exponentStart) return string(out);
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if (i != to && (i != to - 1 || !isSuffix(input.charAt(i)))) return string(out);
+        if (out == null) return DataType.FLOAT;
+        double value = toDouble(mantissa, exponent, exact);
+        if (Double.isNaN(value)) {
+            return floating(out, Double.parseDouble(input.subSequence(from, to).toString()));
+        }
+        return floating(out, negative ? -value : value);
+    }
+
+    /**
+     * Разбирает число с плавающей точкой, записанное байтами ASCII.
+     *
+     * @param input входные данные
+     * @param from  индекс первого байта диапазона
+     * @param to    индекс, следующий за последним байтом диапазона
+     * @param out   результат разбора или {@code null}
+     * @return {@link DataType#FLOAT}, если диапазон является числом с плавающей точкой, иначе {@link DataType#STRING}
+     */
+    private DataType parseFloat(ByteBuffer input, int from, int to, ParsedValue out) {
+        while (from < to && (input.get(from) & 0xFF) <= ' ') from++;
+        while (to > from && (input.get(to - 1) & 0xFF) <= ' ') to--;
+        if (from == to) return string(out);
+        int i = from;
+        int c = input.get(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (++i == to) return string(out);
+            c = input.get(i);
+        }
+        if (c == 'N') {
+            return matches(input, i, to, "NaN") ? floating(out, Double.NaN) : string(out);
+        }
+        if (c == 'I') {
+            return matches(input, i, to, "Infinity")
+                    ? floating(out, negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY) : string(out);
+        }
+        if (c == '0' && i + 1 < to && (input.get(i + 1) == 'x' || input.get(i + 1) == 'X')) {
+            if (!isHexTail(input, i + 2, to)) return string(out);
+            return out == null ? DataType.FLOAT : floating(out, Double.parseDouble(ascii(input, from, to)));
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean hasDigits = false;
+        while (i < to && isDigit(c = input.get(i))) {
+            int digit = c - '0';
+            hasDigits = true;
+            if (significant < MAX_SIGNIFICANT_DIGITS) {
+                if (mantissa != 0 || digit != 0) {
+                    mantissa = mantissa * 10 + digit;
+                    significant++;
+                }
+            } else {
+                exponent++;
+                exact &= digit == 0;
+            }
+            i++;
+        }
+        if (i < to && input.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(c = input.get(i))) {
+                int digit = c - '0';
+                hasDigits = true;
+                if (significant < MAX_SIGNIFICANT_DIGITS) {
+                    if (mantissa != 0 || digit != 0) {
+                        mantissa = mantissa * 10 + digit;
+                        significant++;
+                    }
+                    exponent--;
+                } else {
+                    exact &= digit == 0;
+                }
+                i++;
+            }
+        }
+        if (!hasDigits) return string(out);
+        if (i < to && (input.get(i) == 'e' || input.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (input.get(i) == '-' || input.get(i) == '+')) {
+                negativeExponent = input.get(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int exponentValue = 0;
+            while (i < to && isDigit(c = input.get(i))) {
+                if (exponentValue < 100_000) exponentValue = exponentValue * 10 + (c - '0');
+                i++;
+            }
+            if (i == exponentStart) return string(out);
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if (i != to && (i != to - 1 || !isSuffix(input.get(i)))) return string(out);
+        if (out == null) return DataType.FLOAT;
+        double value = toDouble(mantissa, exponent, exact);
+        if (Double.isNaN(value)) {
+            return floating(out, Double.parseDouble(ascii(input, from, to)));
+        }
+        return floating(out, negative ? -value : value);
+    }
+
+    /**
+     * Вычисляет значение {@code mantissa * 10^exponent}, если его можно получить точно одной операцией
+     * с плавающей точкой. Иначе значение должно быть получено через {@link Double#parseDouble(String)}.
+     *
+     * @param mantissa значащие цифры числа
+     * @param exponent десятичный показатель степени
+     * @param exact    флаг того, что отброшенные цифры были нулями
+     * @return значение числа без знака или {@link Double#NaN}, если быстрое вычисление невозможно
+     */
+    private static double toDouble(long mantissa, int exponent, boolean exact) {
+        if (mantissa == 0) return 0.0;
+        if (!exact || mantissa >= 1L << 53 || exponent < -22 || exponent > 22) return Double.NaN;
+        return exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+    }
+
+    /**
+     * Проверяет шестнадцатеричную запись числа с плавающей точкой после префикса {@code 0x}.
+     * Такая запись обязана содержать двоичный показатель степени {@code p}.
+     *
+     * @param input входные данные
+     * @param i     индекс символа, следующего за префиксом
+     * @param to    индекс, следующий за последним значащим символом
+     * @return true, если запись корректна, иначе false
+     */
+    private boolean isHexTail(CharSequence input, int i, int to) {
+        int digitsStart = i;
+        while (i < to && isHexDigit(input.charAt(i))) i++;
+        int digits = i - digitsStart;
+        if (i < to && input.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < to && isHexDigit(input.charAt(i))) i++;
+            digits += i - fractionStart;
+        }
+        if (digits == 0 || i == to || (input.charAt(i) != 'p' && input.charAt(i) != 'P')) return false;
+        i++;
+        if (i < to && (input.charAt(i) == '-' || input.charAt(i) == '+')) i++;
+        int exponentStart = i;
+        while (i < to && isDigit(input.charAt(i))) i++;
+        if (i == exponentStart) return false;
+        return i == to || i == to - 1 && isSuffix(input.charAt(i));
+    }
+
+    /**
+     * Проверяет шестнадцатеричную запись числа с плавающей точкой после префикса {@code 0x}.
+     *
+     * @param input входные данные
+     * @param i     индекс байта, следующего за префиксом
+     * @param to    индекс, следующий за последним значащим байтом
+     * @return true, если запись корректна, иначе false
+     */
+    private boolean isHexTail(ByteBuffer input, int i, int to) {
+        int digitsStart = i;
+        while (i < to && isHexDigit(input.get(i))) i++;
+        int digits = i - digitsStart;
+        if (i < to && input.get(i) == '.') {
+            int fractionStart = ++i;
+            while (i < to && isHexDigit(input.get(i))) i++;
+            digits += i - fractionStart;
+        }
+        if (digits == 0 || i == to || (input.get(i) != 'p' && input.get(i) != 'P')) return false;
+        i++;
+        if (i < to && (input.get(i) == '-' || input.get(i) == '+')) i++;
+        int exponentStart = i;
+        while (i < to && isDigit(input.get(i))) i++;
+        if (i == exponentStart) return false;
+        return i == to || i == to - 1 && isSuffix(input.get(i));
+    }
+
+    /**
+     * Проверяет, что диапазон в точности совпадает с образцом.
+     *
+     * @param input   входные данные
+     * @param from    индекс первого символа диапазона
+     * @param to      индекс, следующий за последним символом диапазона
+     * @param pattern образец
+     * @return true, если диапазон совпадает с образцом, иначе false
+     */
+    private boolean matches(CharSequence input, int from, int to, String pattern) {
+        if (to - from != pattern.length()) return false;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (input.charAt(from + i) != pattern.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, что диапазон байтов в точности совпадает с образцом из ASCII-символов.
+     *
+     * @param input   входные данные
+     * @param from    индекс первого байта диапазона
+     * @param to      индекс, следующий за последним байтом диапазона
+     * @param pattern образец
+     * @return true, если диапазон совпадает с образцом, иначе false
+     */
+    private boolean matches(ByteBuffer input, int from, int to, String pattern) {
+        if (to - from != pattern.length()) return false;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (input.get(from + i) != pattern.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Создает строку из диапазона байтов ASCII.
+     *
+     * @param input входные данные
+     * @param from  индекс первого байта диапазона
+     * @param to    индекс, следующий за последним байтом диапазона
+     * @return строка из байтов диапазона
+     */
+    private static String ascii(ByteBuffer input, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        input.get(from, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static DataType integer(ParsedValue out, long value) {
+        if (out != null) out.setInteger(value);
+        return DataType.INTEGER;
+    }
+
+    private static DataType floating(ParsedValue out, double value) {
+        if (out != null) out.setFloat(value);
+        return DataType.FLOAT;
+    }
+
+    private static DataType string(ParsedValue out) {
+        if (out != null) out.setString();
+        return DataType.STRING;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(int c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static boolean isSuffix(int c) {
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package Utility;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Отслеживает директории и передает обработчику каждый новый файл, появившийся в них.
+ * Файл передается, когда его размер и время изменения не менялись {@value #SETTLE_MILLIS} мс,
+ * чтобы не читать файл, который еще дописывается. Скрытые файлы (имя начинается с точки)
+ * пропускаются, поэтому файл можно записать под таким именем и затем переименовать.
+ * <p>
+ * Обработанные файлы записываются в журнал: путь, размер и время изменения и позиция в байтах,
+ * до которой файл обработан. После перезапуска файл из журнала повторно не обрабатывается, если он
+ * не изменился. Изменившийся файл считается дописанным и обрабатывается с записанной позиции, поэтому
+ * уже обработанные строки не повторяются. Если чтение прервано ошибкой, в журнал записывается позиция
+ * после последней обработанной строки без отметки, и файл дочитывается с нее, когда будет предложен снова.
+ * При аварийном завершении во время обработки файл обрабатывается еще раз с последней записанной позиции.
+ * <p>
+ * Пока идет отслеживание, из консоли читаются команды: {@code stats} печатает накопленную статистику,
+ * {@code exit} завершает отслеживание.
+ *
+ * @author Andrew Schmunk
+ * @version 1.0
+ */
+public class Watcher {
+    //Время в миллисекундах, в течение которого файл не должен меняться перед обработкой
+    private static final long SETTLE_MILLIS = 1000;
+    //Наибольшее время ожидания событий файловой системы в миллисекундах
+    private static final long POLL_MILLIS = 250;
+    //Отметка в журнале вместо размера и времени изменения файла, чтение которого прервано
+    private static final String INCOMPLETE = "-\t-";
+
+    //Консоль для вывода сообщений и чтения команд
+    private final Console console;
+    //Отслеживаемые директории
+    private final List<Path> directories = new ArrayList<>();
+    //Файл журнала обработанных файлов
+    private final String journalFile;
+    //Файлы, которые не обрабатываются: выходные файлы, журнал и т.п.
+    private final Set<Path> ignored = new HashSet<>();
+
+    //Обработанные файлы: путь, отметка и позиция, до которой файл обработан
+    private final Map<Path, Journaled> processed = new HashMap<>();
+    //Новые файлы, ожидающие окончания записи
+    private final Map<Path, PendingFile> pending = new LinkedHashMap<>();
+    //Команды, прочитанные из консоли
+    private final ConsoleCommands commands;
+
+    /**
+     * Создает наблюдателя за директориями.
+     *
+     * @param console     консоль
+     * @param directories отслеживаемые директории
+     * @param journalFile файл журнала обработанных файлов
+     * @param ignored     файлы, которые не нужно обрабатывать, даже если они появятся в директориях
+     */
+    public Watcher(Console console, List<String> directories, String journalFile, Collection<String> ignored) {
+        this.console = console;
+        this.commands = new ConsoleCommands(console);
+        for (String directory : directories) {
+            this.directories.add(Path.of(directory).toAbsolutePath().normalize());
+        }
+        this.journalFile = journalFile;
+        for (String file : ignored) {
+            this.ignored.add(Path.of(file).toAbsolutePath().normalize());
+        }
+        this.ignored.add(Path.of(journalFile).toAbsolutePath().normalize());
+    }
+
+    /**
+     * Отслеживает директории до команды {@code exit} или прерывания потока.
+     * Сначала обрабатываются файлы, которые уже лежат в директориях и отсутствуют в журнале,
+     * затем - появляющиеся новые.
+     *
+     * @param handler    обработчик новых файлов
+     * @param statistics печать накопленной статистики по команде {@code stats}
+     * @throws IOException если директорию невозможно отслеживать или журнал невозможно прочитать
+     */
+    public void run(FileHandler handler, Runnable statistics) throws IOException {
+        loadJournal();
+        try (WatchService service = directories.get(0).getFileSystem().newWatchService();
+             Writer journal = new FileWriter(journalFile, true)) {
+            Map<WatchKey, Path> keys = new HashMap<>();
+            for (Path directory : directories) {
+                if (!Files.isDirectory(directory)) {
+                    throw new NoSuchFileException(directory.toString());
+                }
+                keys.put(directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), directory);
+            }
+            // Регистрация предшествует обходу, чтобы не пропустить файлы, появившиеся между ними
+            for (Path directory : directories) {
+                scan(directory);
+            }
+            commands.start();
+            console.println("Отслеживание директорий запущено. Команды: stats - статистика, exit - завершение.");
+            while (true) {
+                WatchKey key = service.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    Path directory = keys.get(key);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Часть событий потеряна, поэтому директория просматривается целиком
+                            scan(directory);
+                        } else {
+                            offer(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                String command;
+                while ((command = commands.poll()) != null) {
+                    if (command.equals("exit")) return;
+                    if (command.equals("stats")) {
+                        statistics.run();
+                    } else if (!command.isEmpty()) {
+                        console.printError("неизвестная команда " + command + ".");
+                    }
+                }
+                processSettled(handler, journal);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Добавляет в ожидающие все файлы директории.
+     *
+     * @param directory директория
+     * @throws IOException при ошибке чтения директории
+     */
+    private void scan(Path directory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                offer(file);
+            }
+        }
+    }
+
+    /**
+     * Добавляет файл в ожидающие окончания записи, если его нужно обрабатывать.
+     *
+     * @param file путь к файлу
+     */
+    private void offer(Path file) {
+        if (file.getFileName().toString().startsWith(".") || ignored.contains(file)) return;
+        pending.putIfAbsent(file, new PendingFile());
+    }
+
+    /**
+     * Обрабатывает ожидающие файлы, которые перестали меняться, и записывает их в журнал.
+     *
+     * @param handler обработчик файлов
+     * @param journal журнал обработанных файлов
+     * @throws IOException при ошибке записи журнала
+     */
+    private void processSettled(FileHandler handler, Writer journal) throws IOException {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            Path file = entry.getKey();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // Файл удален или переименован до обработки
+                iterator.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                iterator.remove();
+                continue;
+            }
+            String mark = attributes.size() + "\t" + attributes.lastModifiedTime().toMillis();
+            PendingFile state = entry.getValue();
+            if (!mark.equals(state.mark)) {
+                state.mark = mark;
+                state.since = now;
+                continue;
+            }
+            if (now - state.since < SETTLE_MILLIS) continue;
+            iterator.remove();
+            Journaled done = processed.get(file);
+            if (done != null && mark.equals(done.mark)) continue;
+            long offset = done == null ? 0 : done.offset;
+            long[] reached = {offset};
+            boolean complete = handler.process(file.toString(), offset, position -> reached[0] = position);
+            if (complete || reached[0] != offset) {
+                processed.put(file, new Journaled(complete ? mark : null, reached[0]));
+                journal.write((complete ? mark : INCOMPLETE) + "\t" + reached[0] + "\t" + file + "\n");
+                journal.flush();
+            }
+        }
+    }
+
+    /**
+     * Загружает журнал обработанных файлов, если он существует.
+     * Некорректные записи пропускаются.
+     *
+     * @throws IOException при ошибке чтения журнала
+     */
+    private void loadJournal() throws IOException {
+        if (!Files.exists(Path.of(journalFile))) return;
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 4);
+                try {
+                    if (parts.length == 4) {
+                        String mark = INCOMPLETE.equals(parts[0] + "\t" + parts[1]) ? null : parts[0] + "\t" + parts[1];
+                        processed.put(Path.of(parts[3]), new Journaled(mark, Long.parseLong(parts[2])));
+                    }
+                } catch (NumberFormatException | InvalidPathException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Обработчик нового файла.
+     */
+    @FunctionalInterface
+    public interface FileHandler {
+        /**
+         * Обрабатывает файл, начиная с позиции.
+         *
+         * @param file     путь к файлу
+         * @param offset   позиция в байтах, с которой начинается обработка
+         * @param progress получает позицию после каждой обработанной строки
+         * @return {@code true}, если файл обработан до конца
+         */
+        boolean process(String file, long offset, LongConsumer progress);
+    }
+
+    /**
+     * Запись журнала об обработанном файле.
+     */
+    private static class Journaled {
+        //Размер и время изменения файла, обработанного до конца, или null, если чтение было прервано
+        private final String mark;
+        //Позиция в байтах, до которой файл обработан
+        private final long offset;
+
+        private Journaled(String mark, long offset) {
+            this.mark = mark;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Состояние файла, ожидающего окончания записи.
+     */
+    private static class PendingFile {
+        //Размер и время изменения при последней проверке
+        private String mark;
+        //Время последнего изменения отметки
+        private long since;
+    }
+}